@@ -0,0 +1,83 @@
+package benchmarks;
+
+import engine.HeuristicEvaluator;
+import engine.PositionBatch;
+import model.GameState;
+import model.Player;
+import model.Position;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Positions scored per second: one evaluate call per position against
+// evaluateBatch over the same positions packed into a PositionBatch
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchEvaluationBenchmark {
+    private static final int POSITIONS = 65536;
+
+    @Param({"3x3/3", "5x5/4", "7x7/5", "15x15/5"})
+    public String board;
+
+    private List<GameState> states;
+    private PositionBatch batch;
+    private int[] scores;
+    private HeuristicEvaluator evaluator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GameState empty = Positions.empty(board);
+        int m = empty.getSize();
+        states = new ArrayList<>(POSITIONS);
+        batch = new PositionBatch(m, empty.getK(), POSITIONS);
+        // Distinct seeded games of every length up to half the board
+        Random random = new Random(board.hashCode());
+        for (int i = 0; i < POSITIONS; i++) {
+            GameState state = empty;
+            int stones = i % (m * m / 2 + 1);
+            for (int j = 0; j < stones && !state.isTerminal(); j++) {
+                List<Position> moves = state.getLegalMoves();
+                state = state.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+            states.add(state);
+            batch.add(state);
+        }
+        scores = new int[POSITIONS];
+        evaluator = new HeuristicEvaluator();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int evaluate() {
+        int sum = 0;
+        for (GameState state : states) {
+            sum += evaluator.evaluate(state, Player.X);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int[] evaluateBatch() {
+        evaluator.evaluateBatch(batch, Player.X, scores);
+        return scores;
+    }
+}
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import engine.HeuristicEvaluator;
+import model.GameState;
+import model.Player;
+import model.Position;
+import model.SearchBoard;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Per-node costs: move generation, applying a move and static evaluation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+    @Param({"3x3/3", "4x4/3", "4x4/4", "5x5/4", "6x6/4", "6x6/5", "7x7/4", "7x7/5", "9x9/5", "15x15/5"})
+    public String board;
+
+    private GameState state;
+    private Position move;
+    private int cell;
+    private SearchBoard searchBoard;
+    private HeuristicEvaluator scanEvaluator;
+    private HeuristicEvaluator incrementalEvaluator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        state = Positions.midGame(board);
+        List<Position> moves = state.getLegalMoves();
+        move = moves.get(moves.size() / 2);
+        cell = move.row * state.getSize() + move.col;
+        searchBoard = new SearchBoard(state);
+        scanEvaluator = new HeuristicEvaluator(false);
+        incrementalEvaluator = new HeuristicEvaluator(true);
+        searchBoard.getWindowCounts();
+    }
+
+    @Benchmark
+    public List<Position> getLegalMoves() {
+        return state.getLegalMoves();
+    }
+
+    @Benchmark
+    public GameState makeMove() {
+        return state.makeMove(move);
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        return searchBoard.generateMoves(new int[state.getSize() * state.getSize()]);
+    }
+
+    @Benchmark
+    public boolean playUndo() {
+        searchBoard.play(cell);
+        boolean terminal = searchBoard.isTerminal();
+        searchBoard.undo();
+        return terminal;
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return scanEvaluator.evaluate(state, Player.X);
+    }
+
+    @Benchmark
+    public int evaluateIncremental() {
+        return incrementalEvaluator.evaluate(searchBoard, Player.X);
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import model.GameState;
+import model.SearchBoard;
+import strategies.MoveOrderingStrategy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of ordering the moves of one node, for each strategy
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveOrderingBenchmark {
+    @Param({"3x3/3", "4x4/3", "5x5/4", "6x6/5", "7x7/5"})
+    public String board;
+
+    @Param({"default", "center", "heuristic", "delta", "killer-history"})
+    public String ordering;
+
+    private SearchBoard searchBoard;
+    private MoveOrderingStrategy strategy;
+    private int[] generated;
+    private int[] moves;
+    private int count;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GameState state = Positions.midGame(board);
+        searchBoard = new SearchBoard(state);
+        strategy = Orderings.forName(ordering);
+        generated = new int[state.getSize() * state.getSize()];
+        moves = new int[generated.length];
+        count = searchBoard.generateMoves(generated);
+    }
+
+    @Benchmark
+    public int[] orderMoves() {
+        System.arraycopy(generated, 0, moves, 0, count);
+        strategy.orderMoves(searchBoard, moves, count);
+        return moves;
+    }
+}
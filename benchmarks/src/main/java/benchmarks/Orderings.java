@@ -0,0 +1,30 @@
+package benchmarks;
+
+import strategies.CenterFirstMoveOrdering;
+import strategies.DefaultMoveOrdering;
+import strategies.DeltaMoveOrdering;
+import strategies.HeuristicMoveOrdering;
+import strategies.KillerHistoryMoveOrdering;
+import strategies.MoveOrderingStrategy;
+
+final class Orderings {
+    private Orderings() {
+    }
+
+    static MoveOrderingStrategy forName(String name) {
+        switch (name) {
+            case "default":
+                return new DefaultMoveOrdering();
+            case "center":
+                return new CenterFirstMoveOrdering();
+            case "heuristic":
+                return new HeuristicMoveOrdering();
+            case "delta":
+                return new DeltaMoveOrdering();
+            case "killer-history":
+                return new KillerHistoryMoveOrdering();
+            default:
+                throw new IllegalArgumentException("Unknown move ordering: " + name);
+        }
+    }
+}
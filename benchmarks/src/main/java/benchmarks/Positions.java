@@ -0,0 +1,47 @@
+package benchmarks;
+
+import engine.GameEngine;
+import model.GameState;
+import model.Position;
+import java.util.List;
+import java.util.Random;
+
+// Fixed benchmark positions, so every run and every JVM fork measures the
+// same boards
+final class Positions {
+    private static final long SEED = 20240601L;
+
+    private Positions() {
+    }
+
+    // Parses "MxM/K", e.g. "5x5/4"
+    static GameState empty(String board) {
+        int slash = board.indexOf('/');
+        int m = Integer.parseInt(board.substring(0, board.indexOf('x')));
+        int k = Integer.parseInt(board.substring(slash + 1));
+        return GameEngine.initialState(m, k);
+    }
+
+    // Plays the given number of random moves from a seeded generator,
+    // retrying until it reaches a position that is still undecided
+    static GameState midGame(String board, int stones) {
+        GameState initial = empty(board);
+        Random random = new Random(SEED + board.hashCode() * 31L + stones);
+        while (true) {
+            GameState state = initial;
+            for (int i = 0; i < stones && !state.isTerminal(); i++) {
+                List<Position> moves = state.getLegalMoves();
+                state = state.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+            if (!state.isTerminal()) {
+                return state;
+            }
+        }
+    }
+
+    // Roughly a third of the board filled
+    static GameState midGame(String board) {
+        int m = empty(board).getSize();
+        return midGame(board, m * m / 3);
+    }
+}
@@ -0,0 +1,128 @@
+package benchmarks;
+
+import algorithms.AlphaBetaSolver;
+import algorithms.DepthLimitedSolver;
+import algorithms.MinimaxSolver;
+import algorithms.TranspositionTable;
+import engine.HeuristicEvaluator;
+import model.GameState;
+import model.Position;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One move decision per invocation. Exact solvers only get the boards they
+// can finish; the depth-limited solver covers the whole grid. Each solver
+// gets a fresh transposition table per invocation so results measure a
+// cold search, not a table lookup.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+
+    @State(Scope.Thread)
+    public static class Reference {
+        @Param({"3x3/3"})
+        public String board;
+
+        @Param({"0", "2"})
+        public int stones;
+
+        GameState state;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            state = Positions.midGame(board, stones);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Exact {
+        @Param({"3x3/3"})
+        public String board;
+
+        @Param({"0", "2"})
+        public int stones;
+
+        @Param({"default", "center", "heuristic", "delta", "killer-history"})
+        public String ordering;
+
+        GameState state;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            state = Positions.midGame(board, stones);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LargeExact {
+        @Param({"4x4/3", "4x4/4"})
+        public String board;
+
+        @Param({"default", "center", "heuristic", "delta", "killer-history"})
+        public String ordering;
+
+        GameState state;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            state = Positions.midGame(board, 6);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Limited {
+        @Param({"3x3/3", "4x4/3", "4x4/4", "5x5/4", "6x6/4", "6x6/5", "7x7/4", "7x7/5"})
+        public String board;
+
+        @Param({"2", "3"})
+        public int depth;
+
+        @Param({"default", "center", "heuristic", "delta", "killer-history"})
+        public String ordering;
+
+        GameState state;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            state = Positions.midGame(board);
+        }
+    }
+
+    @Benchmark
+    public Position minimax(Reference reference) {
+        return new MinimaxSolver().findBestMove(reference.state);
+    }
+
+    @Benchmark
+    public Position alphaBeta(Exact exact) {
+        return new AlphaBetaSolver(Orderings.forName(exact.ordering), new TranspositionTable())
+                .findBestMove(exact.state);
+    }
+
+    @Benchmark
+    public Position alphaBetaLarge(LargeExact exact) {
+        return new AlphaBetaSolver(Orderings.forName(exact.ordering), new TranspositionTable())
+                .findBestMove(exact.state);
+    }
+
+    @Benchmark
+    public Position depthLimited(Limited limited) {
+        return new DepthLimitedSolver(limited.depth, new HeuristicEvaluator(true),
+                Orderings.forName(limited.ordering), new TranspositionTable())
+                .findBestMove(limited.state);
+    }
+}
@@ -0,0 +1,111 @@
+package benchmarks;
+
+import engine.HeuristicEvaluator;
+import model.GameState;
+import model.Player;
+import model.Position;
+import model.SearchBoard;
+import model.SparseBoard;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Per-move costs of the sparse board against the bitboards at the same
+// number of stones: the sparse costs should not change with board size.
+// "unbounded/5" has no bitboard version; its dense benchmarks measure
+// nothing.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SparseBoardBenchmark {
+    private static final long SEED = 20240601L;
+
+    @Param({"15x15/5", "50x50/5", "unbounded/5"})
+    public String board;
+
+    @Param({"40"})
+    public int stones;
+
+    private SparseBoard sparse;
+    private GameState state;
+    private SearchBoard searchBoard;
+    private Position move;
+    private HeuristicEvaluator evaluator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED + board.hashCode() * 31L + stones);
+        do {
+            sparse = board.startsWith("unbounded")
+                    ? SparseBoard.unbounded(Integer.parseInt(board.substring(board.indexOf('/') + 1)))
+                    : new SparseBoard(Positions.empty(board).getSize(), Positions.empty(board).getK());
+            // Random moves near the stones, as a game on a large board goes
+            for (int i = 0; i < stones && !sparse.isTerminal(); i++) {
+                List<Position> moves = sparse.getCandidateMoves();
+                sparse.play(moves.get(random.nextInt(moves.size())));
+            }
+        } while (sparse.isTerminal());
+        List<Position> moves = sparse.getCandidateMoves();
+        move = moves.get(moves.size() / 2);
+        if (!sparse.isUnbounded()) {
+            state = sparse.toGameState();
+            searchBoard = new SearchBoard(state);
+            searchBoard.getWindowCounts();
+        }
+        evaluator = new HeuristicEvaluator(true);
+    }
+
+    @Benchmark
+    public boolean sparsePlayUndo() {
+        sparse.play(move);
+        boolean terminal = sparse.isTerminal();
+        sparse.undo();
+        return terminal;
+    }
+
+    @Benchmark
+    public List<Position> sparseCandidateMoves() {
+        return sparse.getCandidateMoves();
+    }
+
+    @Benchmark
+    public int sparseEvaluate() {
+        return evaluator.evaluate(sparse, Player.X);
+    }
+
+    @Benchmark
+    public GameState denseMakeMove() {
+        return state == null ? null : state.makeMove(move);
+    }
+
+    @Benchmark
+    public boolean densePlayUndo() {
+        if (searchBoard == null) {
+            return false;
+        }
+        searchBoard.play(move);
+        boolean terminal = searchBoard.isTerminal();
+        searchBoard.undo();
+        return terminal;
+    }
+
+    @Benchmark
+    public List<Position> denseCandidateMoves() {
+        return state == null ? null : state.getCandidateMoves(2);
+    }
+}
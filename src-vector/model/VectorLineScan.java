@@ -0,0 +1,172 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// LineScan on the Java Vector API: the words of a board are the lanes, so
+// on boards of a few words every shift-and-AND or counter update is one
+// vector operation. A lane's word shifted across word boundaries is built
+// from two unaligned loads of a zero-padded copy. Boards of one or two
+// words gain nothing and take the scalar path.
+final class VectorLineScan extends LineScan {
+    // Four lanes hold a 15x15 board; wider vectors measured slower
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_256;
+    private static final int LANES = SPECIES.length();
+    // Largest count four bit planes hold
+    private static final int MAX_K = 15;
+    // Up to 9x9 the scalar scan of two words is as fast
+    private static final int MIN_WORDS = 3;
+
+    private final ConcurrentHashMap<Long, long[][]> paddedStarts = new ConcurrentHashMap<>();
+    // Padded copies of the two boards and the lane scratch for tally,
+    // reused: hasLine and countOpenWindows run on every move
+    private final ThreadLocal<long[][]> buffers = ThreadLocal.withInitial(() -> new long[][] {
+            new long[0], new long[0], new long[LANES]});
+
+    VectorLineScan() {
+        // Without hardware vectors of this width the API falls back to
+        // Java code far slower than the scalar scan
+        if (LongVector.SPECIES_PREFERRED.vectorBitSize() < SPECIES.vectorBitSize()) {
+            throw new UnsupportedOperationException("No " + SPECIES.vectorBitSize() + "-bit vectors");
+        }
+    }
+
+    @Override
+    boolean hasLine(long[] bits, int m, int k) {
+        if (bits.length < MIN_WORDS) {
+            return super.hasLine(bits, m, k);
+        }
+        long[] padded = pad(bits, maxShift(m, k), buffers.get(), 0);
+        for (int d = 0; d < Bitboard.DIRECTIONS; d++) {
+            int shift = Bitboard.lineShift(m, d);
+            for (int w = 0; w < bits.length; w += LANES) {
+                LongVector run = LongVector.fromArray(SPECIES, padded, w);
+                for (int i = 1; i < k; i++) {
+                    run = run.and(shifted(padded, w, i * shift));
+                }
+                if (run.reduceLanes(VectorOperators.OR) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Counters are four bit planes held in locals: vectors in arrays would
+    // be boxed on every update. Windows of 16 or more take the scalar path.
+    @Override
+    void countOpenWindows(long[] x, long[] o, int m, int k, int[] xOpen, int[] oOpen) {
+        if (x.length < MIN_WORDS || k > MAX_K) {
+            super.countOpenWindows(x, o, m, k, xOpen, oOpen);
+            return;
+        }
+        long[][] starts = paddedStarts.computeIfAbsent(((long) m << 32) | k, key -> {
+            long[][] padded = Bitboard.windowStarts(m, k).clone();
+            for (int d = 0; d < padded.length; d++) {
+                padded[d] = Arrays.copyOf(padded[d], paddedLength(padded[d].length, 0));
+            }
+            return padded;
+        });
+        int maxShift = maxShift(m, k);
+        long[][] buffers = this.buffers.get();
+        long[] xPadded = pad(x, maxShift, buffers, 0);
+        long[] oPadded = pad(o, maxShift, buffers, 1);
+        long[] lanes = buffers[2];
+        for (int d = 0; d < Bitboard.DIRECTIONS; d++) {
+            int shift = Bitboard.lineShift(m, d);
+            for (int w = 0; w < x.length; w += LANES) {
+                LongVector x0 = LongVector.broadcast(SPECIES, 0L);
+                LongVector x1 = x0;
+                LongVector x2 = x0;
+                LongVector x3 = x0;
+                LongVector o0 = x0;
+                LongVector o1 = x0;
+                LongVector o2 = x0;
+                LongVector o3 = x0;
+                for (int i = 0; i < k; i++) {
+                    LongVector carry = shifted(xPadded, w, i * shift);
+                    LongVector next = x0.and(carry);
+                    x0 = x0.lanewise(VectorOperators.XOR, carry);
+                    carry = x1.and(next);
+                    x1 = x1.lanewise(VectorOperators.XOR, next);
+                    next = x2.and(carry);
+                    x2 = x2.lanewise(VectorOperators.XOR, carry);
+                    x3 = x3.lanewise(VectorOperators.XOR, next);
+
+                    carry = shifted(oPadded, w, i * shift);
+                    next = o0.and(carry);
+                    o0 = o0.lanewise(VectorOperators.XOR, carry);
+                    carry = o1.and(next);
+                    o1 = o1.lanewise(VectorOperators.XOR, next);
+                    next = o2.and(carry);
+                    o2 = o2.lanewise(VectorOperators.XOR, carry);
+                    o3 = o3.lanewise(VectorOperators.XOR, next);
+                }
+                LongVector start = LongVector.fromArray(SPECIES, starts[d], w);
+                LongVector xAny = x0.or(x1).or(x2).or(x3);
+                LongVector oAny = o0.or(o1).or(o2).or(o3);
+                tally(x0, x1, x2, x3, start.and(oAny.not()), k, xOpen, lanes);
+                tally(o0, o1, o2, o3, start.and(xAny.not()), k, oOpen, lanes);
+            }
+        }
+    }
+
+    // Lanes w.. of the padded value (bits >>> shift). Branch-free, as C2
+    // boxes vectors merged from two paths; the high word's shift is split
+    // in two so an offset of 0 shifts it out entirely.
+    private static LongVector shifted(long[] padded, int w, int shift) {
+        int src = w + (shift >>> 6);
+        int offset = shift & 63;
+        LongVector lo = LongVector.fromArray(SPECIES, padded, src);
+        LongVector hi = LongVector.fromArray(SPECIES, padded, src + 1);
+        return lo.lanewise(VectorOperators.LSHR, offset)
+                .or(hi.lanewise(VectorOperators.LSHL, 63 - offset).lanewise(VectorOperators.LSHL, 1));
+    }
+
+    private static void tally(LongVector c0, LongVector c1, LongVector c2, LongVector c3,
+                              LongVector windows, int k, int[] open, long[] lanes) {
+        if (windows.reduceLanes(VectorOperators.OR) == 0) {
+            return;
+        }
+        for (int n = 1; n <= k; n++) {
+            // XOR with all ones where bit j of n is clear, with zero where set
+            LongVector match = windows
+                    .and(c0.lanewise(VectorOperators.XOR, (n & 1) - 1L))
+                    .and(c1.lanewise(VectorOperators.XOR, (n >>> 1 & 1) - 1L))
+                    .and(c2.lanewise(VectorOperators.XOR, (n >>> 2 & 1) - 1L))
+                    .and(c3.lanewise(VectorOperators.XOR, (n >>> 3 & 1) - 1L));
+            match.intoArray(lanes, 0);
+            for (long lane : lanes) {
+                open[n] += Long.bitCount(lane);
+            }
+        }
+    }
+
+    // The diagonal has the largest shift, stride + 1
+    private static int maxShift(int m, int k) {
+        return (k - 1) * Bitboard.lineShift(m, 2);
+    }
+
+    // Zeros after the board cover every load: a full vector from the last
+    // block start, plus the words a shift reaches past it
+    private static int paddedLength(int words, int maxShift) {
+        int blocks = (words + LANES - 1) / LANES;
+        return blocks * LANES + (maxShift >>> 6) + 1;
+    }
+
+    // Copies bits into this thread's buffer slot, grown when too short,
+    // and zeros the padding behind them
+    private static long[] pad(long[] bits, int maxShift, long[][] buffers, int slot) {
+        int length = paddedLength(bits.length, maxShift);
+        if (buffers[slot].length < length) {
+            buffers[slot] = new long[length];
+        }
+        long[] padded = buffers[slot];
+        System.arraycopy(bits, 0, padded, 0, bits.length);
+        Arrays.fill(padded, bits.length, length, 0L);
+        return padded;
+    }
+}
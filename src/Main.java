@@ -5,6 +5,7 @@ import model.Position;
 import engine.GameEngine;
 import algorithms.AlphaBetaSolver;
 import algorithms.MinimaxSolver;
+import algorithms.RetrogradeSolver;
 import strategies.HeuristicMoveOrdering;
 import java.util.Scanner;
 
@@ -28,11 +29,15 @@ public class Main {
         int k = scanner.nextInt();
 
         GameState state = GameEngine.initialState(m, k);
-        AlphaBetaSolver solver;
-
-        if (m == 3 && k == 3) {
-            solver = new AlphaBetaSolver();
-            System.out.println("Using optimal Alpha-Beta for 3x3 board");
+        AlphaBetaSolver solver = null;
+        RetrogradeSolver table = null;
+
+        if (m * m <= RetrogradeSolver.MAX_CELLS) {
+            // Small boards are solved outright once; every move is then a lookup
+            long start = System.currentTimeMillis();
+            table = new RetrogradeSolver(m, k);
+            table.solve();
+            System.out.println("Solved every position in " + (System.currentTimeMillis() - start) + "ms");
         } else {
             solver = new AlphaBetaSolver(new HeuristicMoveOrdering());
             System.out.println("Using heuristic Alpha-Beta for larger board");
@@ -45,10 +50,12 @@ public class Main {
 
             if (state.getCurrentPlayer() == Player.X) {
                 System.out.println("AI is thinking...");
-                Position aiMove = solver.findBestMove(state);
+                Position aiMove = table != null ? table.findBestMove(state) : solver.findBestMove(state);
                 System.out.println("AI plays: " + aiMove);
                 state = state.makeMove(aiMove);
-                System.out.println("Nodes evaluated: " + solver.getNodesEvaluated());
+                if (solver != null) {
+                    System.out.println("Search: " + solver.getStats());
+                }
             } else {
                 System.out.print("Enter your move (row col): ");
                 int row = scanner.nextInt();
@@ -1,81 +1,290 @@
 package algorithms;
 
 import model.GameState;
+import model.Player;
 import model.Position;
+import model.SearchBoard;
+import model.Symmetry;
+import monitoring.SearchTrace;
 import strategies.MoveOrderingStrategy;
 import strategies.DefaultMoveOrdering;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class AlphaBetaSolver {
-    private int nodesEvaluated;
+public class AlphaBetaSolver implements Solver {
     private MoveOrderingStrategy moveOrdering;
+    private TranspositionTable transpositionTable;
+    private int candidateDistance;
+    private long tableRules = -1;
+    private OpeningBook openingBook;
+    private SearchStats.Counters totals;
+    private SearchStats stats = SearchStats.EMPTY;
 
     public AlphaBetaSolver() {
         this(new DefaultMoveOrdering());
     }
 
     public AlphaBetaSolver(MoveOrderingStrategy moveOrdering) {
-        this.nodesEvaluated = 0;
+        this(moveOrdering, new TranspositionTable());
+    }
+
+    // Pass a null table to search without transposition lookups
+    public AlphaBetaSolver(MoveOrderingStrategy moveOrdering, TranspositionTable transpositionTable) {
         this.moveOrdering = moveOrdering;
+        this.transpositionTable = transpositionTable;
     }
 
+    @Override
     public Position findBestMove(GameState state) {
-        nodesEvaluated = 0;
-        List<Position> moves = moveOrdering.orderMoves(state, state.getLegalMoves());
+        long start = System.nanoTime();
+        SearchTrace trace = SearchTrace.begin("AlphaBetaSolver", state);
+        totals = new SearchStats.Counters(0);
+        Position booked = bookMove(state);
+        if (booked != null) {
+            finishStats(start, trace);
+            return booked;
+        }
+        moveOrdering.onSearchStart();
+        prepareTable(state);
+        Search search = new Search(state);
+        int m = state.getSize();
+        int[] moves = search.moveBuffers[0];
+        int count = SearchUtils.rootMoves(search.board, moves, moveOrdering);
 
+        // Utilities are from X's side; the root maximizes them for X and
+        // minimizes them, as negated values, for O
+        boolean rootIsX = state.getCurrentPlayer() == Player.X;
         int bestValue = Integer.MIN_VALUE;
-        Position bestMove = moves.get(0);
+        int bestMove = moves[0];
 
-        for (Position move : moves) {
-            GameState newState = state.makeMove(move);
-            int moveValue = alphaBeta(newState, Integer.MIN_VALUE, Integer.MAX_VALUE, false);
+        for (int i = 0; i < count; i++) {
+            search.board.play(moves[i]);
+            int moveValue = search.alphaBeta(1, Integer.MIN_VALUE, Integer.MAX_VALUE, !rootIsX);
+            search.board.undo();
+            if (!rootIsX) {
+                moveValue = -moveValue;
+            }
 
             if (moveValue > bestValue) {
                 bestValue = moveValue;
-                bestMove = move;
+                bestMove = moves[i];
             }
         }
 
-        return bestMove;
+        search.finish();
+        finishStats(start, trace);
+        return new Position(bestMove / m, bestMove % m);
     }
 
-    private int alphaBeta(GameState state, int alpha, int beta, boolean isMaximizing) {
-        nodesEvaluated++;
-
-        if (state.isTerminal()) {
-            return state.getUtility();
+    // Searches the root moves as parallel tasks on the given pool. Tasks share
+    // the best root value found so far as their alpha bound (less one, so
+    // ties are still resolved exactly) and the transposition table. The move
+    // returned is the one the sequential search would return: the first
+    // move, in ordering order, with the best value.
+    public Position findBestMoveParallel(GameState state, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        SearchTrace trace = SearchTrace.begin("AlphaBetaSolver", state);
+        totals = new SearchStats.Counters(0);
+        Position booked = bookMove(state);
+        if (booked != null) {
+            finishStats(start, trace);
+            return booked;
         }
+        moveOrdering.onSearchStart();
+        prepareTable(state);
+        int m = state.getSize();
+        SearchBoard root = new SearchBoard(state);
+        root.setCandidateDistance(candidateDistance);
+        int[] moves = new int[m * m];
+        int count = SearchUtils.rootMoves(root, moves, moveOrdering);
 
-        List<Position> moves = moveOrdering.orderMoves(state, state.getLegalMoves());
-
-        if (isMaximizing) {
-            int maxEval = Integer.MIN_VALUE;
-            for (Position move : moves) {
-                GameState newState = state.makeMove(move);
-                int eval = alphaBeta(newState, alpha, beta, false);
-                maxEval = Math.max(maxEval, eval);
-                alpha = Math.max(alpha, eval);
-                if (beta <= alpha) {
-                    break;
-                }
-            }
-            return maxEval;
-        } else {
-            int minEval = Integer.MAX_VALUE;
-            for (Position move : moves) {
-                GameState newState = state.makeMove(move);
-                int eval = alphaBeta(newState, alpha, beta, true);
-                minEval = Math.min(minEval, eval);
-                beta = Math.min(beta, eval);
-                if (beta <= alpha) {
-                    break;
+        // Root values are from the side to move, as in findBestMove; for O
+        // the bound becomes a beta on X's utility
+        boolean rootIsX = state.getCurrentPlayer() == Player.X;
+        AtomicInteger sharedAlpha = new AtomicInteger(Integer.MIN_VALUE);
+        List<Callable<Integer>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            tasks.add(() -> {
+                Search search = new Search(state);
+                int best = sharedAlpha.get();
+                int alpha = best == Integer.MIN_VALUE ? best : best - 1;
+                search.board.play(move);
+                int value = rootIsX
+                        ? search.alphaBeta(1, alpha, Integer.MAX_VALUE, false)
+                        : -search.alphaBeta(1, Integer.MIN_VALUE,
+                                alpha == Integer.MIN_VALUE ? Integer.MAX_VALUE : -alpha, true);
+                search.finish();
+                if (value <= alpha) {
+                    // Failed low: strictly worse than a move already searched
+                    return Integer.MIN_VALUE;
                 }
+                sharedAlpha.accumulateAndGet(value, Math::max);
+                return value;
+            });
+        }
+
+        int[] values = SearchUtils.invokeAll(pool, tasks);
+        int bestIndex = 0;
+        for (int i = 1; i < count; i++) {
+            if (values[i] > values[bestIndex]) {
+                bestIndex = i;
             }
-            return minEval;
         }
+        finishStats(start, trace);
+        return new Position(moves[bestIndex] / m, moves[bestIndex] % m);
+    }
+
+    // Searches only empty cells within distance king moves of a stone (see
+    // SearchBoard.setCandidateDistance); 0, the default, searches them all
+    public void setCandidateDistance(int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Candidate distance must not be negative: " + distance);
+        }
+        this.candidateDistance = distance;
     }
 
+    // Positions found in the book are answered from it without searching;
+    // pass null to always search
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    // Entries hold values under the rules they were searched with: board
+    // size, k and candidate distance. A change of any of them clears the table.
+    private void prepareTable(GameState state) {
+        if (transpositionTable == null) {
+            return;
+        }
+        long rules = ((long) state.getSize() << 40) | ((long) state.getK() << 20) | candidateDistance;
+        if (rules != tableRules) {
+            transpositionTable.clear();
+            tableRules = rules;
+        }
+    }
+
+    private void finishStats(long start, SearchTrace trace) {
+        stats = new SearchStats(totals, System.nanoTime() - start);
+        SearchUtils.endTrace(trace, stats.getMaxDepth(), stats);
+    }
+
+    private Position bookMove(GameState state) {
+        return openingBook == null ? null : openingBook.getBestMove(state);
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    // Saturates at Integer.MAX_VALUE; getStats().getNodes() does not
     public int getNodesEvaluated() {
-        return nodesEvaluated;
+        return (int) Math.min(stats.getNodes(), Integer.MAX_VALUE);
+    }
+
+    // Per-thread search state; counters are published to the solver on finish
+    private class Search {
+        final SearchBoard board;
+        final int[][] moveBuffers;
+        final SearchStats.Counters counters;
+
+        Search(GameState state) {
+            this.board = new SearchBoard(state);
+            board.setCandidateDistance(candidateDistance);
+            this.moveBuffers = SearchUtils.moveBuffers(board, state.getSize() * state.getSize());
+            this.counters = new SearchStats.Counters(moveBuffers.length);
+        }
+
+        void finish() {
+            synchronized (totals) {
+                totals.add(counters);
+            }
+        }
+
+        // Values are exact game utilities, so table entries stay valid across calls
+        // with the same rules (see prepareTable) and can be shared by all symmetric copies of a position. Best moves are
+        // stored in the canonical frame.
+        int alphaBeta(int ply, int alpha, int beta, boolean isMaximizing) {
+            counters.node(ply);
+
+            if (board.isTerminal()) {
+                return board.getUtility();
+            }
+
+            long key = board.getCanonicalKey();
+            int transform = board.getCanonicalTransform();
+            int m = board.getSize();
+            int ttMove = TranspositionTable.NO_MOVE;
+            if (transpositionTable != null) {
+                long entry = transpositionTable.probe(key);
+                counters.probe(entry != TranspositionTable.NO_ENTRY);
+                if (entry != TranspositionTable.NO_ENTRY) {
+                    int value = TranspositionTable.value(entry);
+                    int flag = TranspositionTable.flag(entry);
+                    if (flag == TranspositionTable.EXACT
+                            || (flag == TranspositionTable.LOWER_BOUND && value >= beta)
+                            || (flag == TranspositionTable.UPPER_BOUND && value <= alpha)) {
+                        return value;
+                    }
+                    ttMove = Symmetry.applyToCell(Symmetry.inverse(transform),
+                            TranspositionTable.bestMove(entry), m);
+                }
+            }
+
+            int originalAlpha = alpha;
+            int originalBeta = beta;
+            int[] moves = moveBuffers[ply];
+            int count = board.generateMoves(moves);
+            moveOrdering.orderMoves(board, moves, count, ply);
+            SearchUtils.moveToFront(moves, count, ttMove);
+            int bestMove = moves[0];
+
+            int bestEval;
+            if (isMaximizing) {
+                bestEval = Integer.MIN_VALUE;
+                for (int i = 0; i < count; i++) {
+                    board.play(moves[i]);
+                    int eval = alphaBeta(ply + 1, alpha, beta, false);
+                    board.undo();
+                    if (eval > bestEval) {
+                        bestEval = eval;
+                        bestMove = moves[i];
+                    }
+                    alpha = Math.max(alpha, eval);
+                    if (beta <= alpha) {
+                        counters.cutoff(ply, i);
+                        moveOrdering.onCutoff(board, moves[i], ply, m * m - board.getStoneCount());
+                        break;
+                    }
+                }
+            } else {
+                bestEval = Integer.MAX_VALUE;
+                for (int i = 0; i < count; i++) {
+                    board.play(moves[i]);
+                    int eval = alphaBeta(ply + 1, alpha, beta, true);
+                    board.undo();
+                    if (eval < bestEval) {
+                        bestEval = eval;
+                        bestMove = moves[i];
+                    }
+                    beta = Math.min(beta, eval);
+                    if (beta <= alpha) {
+                        counters.cutoff(ply, i);
+                        moveOrdering.onCutoff(board, moves[i], ply, m * m - board.getStoneCount());
+                        break;
+                    }
+                }
+            }
+
+            if (transpositionTable != null) {
+                transpositionTable.store(key, 0, bestEval,
+                        SearchUtils.boundType(bestEval, originalAlpha, originalBeta),
+                        Symmetry.applyToCell(transform, bestMove, m));
+            }
+            return bestEval;
+        }
     }
-}
\ No newline at end of file
+}
@@ -3,84 +3,499 @@ package algorithms;
 import model.GameState;
 import model.Player;
 import model.Position;
+import model.SearchBoard;
 import engine.HeuristicEvaluator;
+import monitoring.SearchTrace;
 import strategies.MoveOrderingStrategy;
 import strategies.DefaultMoveOrdering;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class DepthLimitedSolver {
+public class DepthLimitedSolver implements Solver {
     private int maxDepth;
     private HeuristicEvaluator evaluator;
     private MoveOrderingStrategy moveOrdering;
-    private int nodesEvaluated;
+    private TranspositionTable transpositionTable;
+    private int candidateDistance;
+    private ThreatSpaceSolver threatSearch;
+    private int threatMove = -1;
+    private OpeningBook openingBook;
+    private SearchStats.Counters totals = new SearchStats.Counters(0);
+    private SearchStats stats = SearchStats.EMPTY;
+    private long startNanos;
+    private SearchTrace trace;
+    private int depthReached;
+    private long[] threadNodes = new long[0];
 
     public DepthLimitedSolver(int maxDepth) {
-        this(maxDepth, new HeuristicEvaluator(), new DefaultMoveOrdering());
+        this(maxDepth, new HeuristicEvaluator(true), new DefaultMoveOrdering());
     }
 
     public DepthLimitedSolver(int maxDepth, HeuristicEvaluator evaluator, MoveOrderingStrategy moveOrdering) {
+        this(maxDepth, evaluator, moveOrdering, new TranspositionTable());
+    }
+
+    // Pass a null table to search without transposition lookups
+    public DepthLimitedSolver(int maxDepth, HeuristicEvaluator evaluator, MoveOrderingStrategy moveOrdering,
+                              TranspositionTable transpositionTable) {
         this.maxDepth = maxDepth;
         this.evaluator = evaluator;
         this.moveOrdering = moveOrdering;
-        this.nodesEvaluated = 0;
+        this.transpositionTable = transpositionTable;
     }
 
+    @Override
     public Position findBestMove(GameState state) {
-        nodesEvaluated = 0;
-        List<Position> moves = moveOrdering.orderMoves(state, state.getLegalMoves());
+        Position known = knownMove(state);
+        if (known != null) {
+            return known;
+        }
+        Search search = startSearch(state, maxDepth + 1);
+        int m = state.getSize();
+        int[] moves = search.moveBuffers[0];
+        int count = rootMoves(search.board, moves);
 
-        int bestValue = Integer.MIN_VALUE;
-        Position bestMove = moves.get(0);
-        Player maximizingPlayer = state.getCurrentPlayer();
+        int bestMove = search.searchRoot(moves, count, maxDepth);
+        search.finish();
+        depthReached = maxDepth;
+        finishStats();
+        return new Position(bestMove / m, bestMove % m);
+    }
 
-        for (Position move : moves) {
-            GameState newState = state.makeMove(move);
-            int moveValue = alphaBeta(newState, maxDepth, Integer.MIN_VALUE,
-                    Integer.MAX_VALUE, false, maximizingPlayer);
+    // Anytime search: deepens one ply at a time until the budget runs out and
+    // returns the best move of the deepest completed iteration. The first
+    // iteration always completes so there is always a move to return.
+    public Position findBestMove(GameState state, long timeBudgetMillis) {
+        Position known = knownMove(state);
+        if (known != null) {
+            return known;
+        }
+        Search search = startSearch(state, Integer.MAX_VALUE);
+        int m = state.getSize();
+        int[] moves = search.moveBuffers[0];
+        int count = rootMoves(search.board, moves);
 
-            if (moveValue > bestValue) {
-                bestValue = moveValue;
-                bestMove = move;
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        int bestMove = search.iterate(moves, count, 0, m * m - state.getStoneCount() - 1, deadline);
+        depthReached = search.depthCompleted;
+        search.finish();
+        finishStats();
+        return new Position(bestMove / m, bestMove % m);
+    }
+
+    // Lazy SMP: the calling thread deepens to maxDepth while threads - 1
+    // helpers search the same position at staggered depths and with rotated
+    // root move orders. Nothing is coordinated except through the shared
+    // transposition table, where helpers leave bounds and best moves that
+    // make the main search cheaper. The result is the main search's move.
+    public Position findBestMoveLazySmp(GameState state, int threads) {
+        return lazySmp(state, threads, maxDepth, 0);
+    }
+
+    // Time-budgeted Lazy SMP; the main search deepens until the budget runs
+    // out, as in findBestMove(state, timeBudgetMillis)
+    public Position findBestMoveLazySmp(GameState state, int threads, long timeBudgetMillis) {
+        int emptyCells = state.getSize() * state.getSize() - state.getStoneCount();
+        return lazySmp(state, threads, emptyCells - 1, System.nanoTime() + timeBudgetMillis * 1_000_000L);
+    }
+
+    private Position lazySmp(GameState state, int threads, int lastDepth, long deadline) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        Position known = knownMove(state);
+        if (known != null) {
+            return known;
+        }
+        Search main = startSearch(state, Integer.MAX_VALUE);
+        int m = state.getSize();
+        int[] moves = main.moveBuffers[0];
+        int count = rootMoves(main.board, moves);
+        int emptyCells = m * m - state.getStoneCount();
+
+        AtomicBoolean stop = new AtomicBoolean();
+        Search[] helpers = new Search[threads - 1];
+        Thread[] helperThreads = new Thread[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            int id = i + 1;
+            Search helper = new Search(state, Integer.MAX_VALUE);
+            helper.stop = stop;
+            helpers[i] = helper;
+
+            int[] helperMoves = new int[count];
+            for (int j = 0; j < count; j++) {
+                helperMoves[j] = moves[(j + id) % count];
             }
+            // Odd helpers start one ply deeper than the main search
+            int startDepth = Math.min(id % 2 + 1, emptyCells - 1);
+            helperThreads[i] = new Thread(
+                    () -> helper.iterate(helperMoves, count, startDepth, emptyCells - 1, deadline),
+                    "lazy-smp-helper-" + id);
+            helperThreads[i].setDaemon(true);
+            helperThreads[i].start();
         }
 
-        return bestMove;
+        int bestMove = main.iterate(moves, count, 0, lastDepth, deadline);
+        stop.set(true);
+        for (Thread thread : helperThreads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        depthReached = main.depthCompleted;
+        threadNodes = new long[threads];
+        threadNodes[0] = main.counters.nodes;
+        main.finish();
+        for (int i = 0; i < helpers.length; i++) {
+            threadNodes[i + 1] = helpers[i].counters.nodes;
+            helpers[i].finish();
+        }
+        finishStats();
+        return new Position(bestMove / m, bestMove % m);
     }
 
-    private int alphaBeta(GameState state, int depth, int alpha, int beta,
-                          boolean isMaximizing, Player originalPlayer) {
-        nodesEvaluated++;
+    // Fixed-depth search with the root moves split across the pool. Tasks
+    // share the best root value so far as their alpha bound (less one, so
+    // ties are still resolved exactly) and the transposition table, and the
+    // move returned is the one the sequential search would return.
+    public Position findBestMoveParallel(GameState state, ForkJoinPool pool) {
+        Position known = knownMove(state);
+        if (known != null) {
+            return known;
+        }
+        Search rootSearch = startSearch(state, 1);
+        int m = state.getSize();
+        int[] moves = new int[m * m];
+        int count = rootMoves(rootSearch.board, moves);
+        Player maximizingPlayer = state.getCurrentPlayer();
 
-        if (state.isTerminal() || depth == 0) {
-            return evaluator.evaluate(state, originalPlayer);
+        AtomicInteger sharedAlpha = new AtomicInteger(Integer.MIN_VALUE);
+        List<Callable<Integer>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            tasks.add(() -> {
+                Search search = new Search(state, maxDepth + 1);
+                int best = sharedAlpha.get();
+                int alpha = best == Integer.MIN_VALUE ? best : best - 1;
+                search.board.play(move);
+                int value = search.alphaBeta(1, maxDepth, alpha, Integer.MAX_VALUE, false, maximizingPlayer);
+                search.finish();
+                if (value <= alpha) {
+                    // Failed low: strictly worse than a move already searched
+                    return Integer.MIN_VALUE;
+                }
+                sharedAlpha.accumulateAndGet(value, Math::max);
+                return value;
+            });
         }
 
-        List<Position> moves = moveOrdering.orderMoves(state, state.getLegalMoves());
+        int[] values = SearchUtils.invokeAll(pool, tasks);
+        int bestIndex = 0;
+        for (int i = 1; i < count; i++) {
+            if (values[i] > values[bestIndex]) {
+                bestIndex = i;
+            }
+        }
+        depthReached = maxDepth;
+        finishStats();
+        return new Position(moves[bestIndex] / m, moves[bestIndex] % m);
+    }
 
-        if (isMaximizing) {
-            int maxEval = Integer.MIN_VALUE;
-            for (Position move : moves) {
-                GameState newState = state.makeMove(move);
-                int eval = alphaBeta(newState, depth - 1, alpha, beta, false, originalPlayer);
-                maxEval = Math.max(maxEval, eval);
-                alpha = Math.max(alpha, eval);
-                if (beta <= alpha) break;
+    // Root moves in search order, led by the threat search's VCT move (or the
+    // root move symmetric to it, which stands in for it) when there is one
+    private int rootMoves(SearchBoard board, int[] moves) {
+        int count = SearchUtils.rootMoves(board, moves, moveOrdering);
+        if (threatMove < 0) {
+            return count;
+        }
+        board.play(threatMove);
+        long key = board.getCanonicalKey();
+        board.undo();
+        for (int i = 0; i < count; i++) {
+            board.play(moves[i]);
+            boolean same = board.getCanonicalKey() == key;
+            board.undo();
+            if (same) {
+                int move = moves[i];
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                break;
             }
-            return maxEval;
-        } else {
-            int minEval = Integer.MAX_VALUE;
-            for (Position move : moves) {
-                GameState newState = state.makeMove(move);
-                int eval = alphaBeta(newState, depth - 1, alpha, beta, true, originalPlayer);
-                minEval = Math.min(minEval, eval);
-                beta = Math.min(beta, eval);
-                if (beta <= alpha) break;
+        }
+        return count;
+    }
+
+    private Search startSearch(GameState state, int plies) {
+        moveOrdering.onSearchStart();
+        // Scores are relative to the side to move at the root, so entries
+        // from an earlier call cannot be reused
+        if (transpositionTable != null) {
+            transpositionTable.clear();
+        }
+        Search search = new Search(state, plies);
+        search.traced = true;
+        return search;
+    }
+
+    // Searches only empty cells within distance king moves of a stone (see
+    // SearchBoard.setCandidateDistance); 0, the default, searches them all
+    public void setCandidateDistance(int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Candidate distance must not be negative: " + distance);
+        }
+        this.candidateDistance = distance;
+    }
+
+    // Runs the given threat search before every search. A VCF win is played
+    // without a full-width search; a VCT win is not a proof, so its move is
+    // only searched first. Pass null to turn the pre-pass off again.
+    public void setThreatSearch(ThreatSpaceSolver threatSearch) {
+        this.threatSearch = threatSearch;
+    }
+
+    // Positions found in the book are answered from it without searching;
+    // pass null to always search
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    // Every search starts here, so this also starts its clock and counters.
+    // Returns a move from the book, or else a VCF win from the threat search;
+    // the threat search's nodes count either way. A VCT win is kept for
+    // rootMoves to order first.
+    private Position knownMove(GameState state) {
+        startNanos = System.nanoTime();
+        trace = SearchTrace.begin("DepthLimitedSolver", state);
+        totals = new SearchStats.Counters(0);
+        threatMove = -1;
+        if (openingBook != null) {
+            Position booked = openingBook.getBestMove(state);
+            if (booked != null) {
+                depthReached = 0;
+                threadNodes = new long[0];
+                finishStats();
+                return booked;
             }
-            return minEval;
         }
+        if (threatSearch == null) {
+            return null;
+        }
+        Position win = threatSearch.findWinningMove(state);
+        totals.nodes += threatSearch.getStats().getNodes();
+        if (win != null && !threatSearch.isVcf()) {
+            threatMove = win.row * state.getSize() + win.col;
+            return null;
+        }
+        if (win != null) {
+            depthReached = threatSearch.getWinningLine().size() - 1;
+            threadNodes = new long[0];
+            finishStats();
+        }
+        return win;
+    }
+
+    private void finishStats() {
+        stats = new SearchStats(totals, System.nanoTime() - startNanos);
+        SearchUtils.endTrace(trace, depthReached, stats);
+    }
+
+    public int getDepthReached() {
+        return depthReached;
     }
 
+    // Nodes searched by each thread in the last Lazy SMP search; index 0 is
+    // the main search
+    public long[] getThreadNodes() {
+        return threadNodes.clone();
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    // Saturates at Integer.MAX_VALUE; getStats().getNodes() does not
     public int getNodesEvaluated() {
-        return nodesEvaluated;
+        return (int) Math.min(stats.getNodes(), Integer.MAX_VALUE);
+    }
+
+    // Per-thread search state; counters are published to the solver on finish
+    private class Search {
+        final SearchBoard board;
+        final int[][] moveBuffers;
+        final SearchStats.Counters counters;
+        long deadline;
+        AtomicBoolean stop;
+        boolean aborted;
+        int depthCompleted = -1;
+        // Only the calling thread's search reports its iterations
+        boolean traced;
+
+        Search(GameState state, int plies) {
+            this.board = new SearchBoard(state);
+            board.setCandidateDistance(candidateDistance);
+            this.moveBuffers = SearchUtils.moveBuffers(board, plies);
+            this.counters = new SearchStats.Counters(moveBuffers.length);
+        }
+
+        void finish() {
+            synchronized (totals) {
+                totals.add(counters);
+            }
+        }
+
+        // Iterative deepening from startDepth to lastDepth; returns the best
+        // move of the deepest completed iteration. The first iteration ignores
+        // the deadline so that there is always a move to return.
+        int iterate(int[] moves, int count, int startDepth, int lastDepth, long deadline) {
+            int bestMove = moves[0];
+            for (int depth = startDepth; depth <= lastDepth; depth++) {
+                // Search the previous iteration's best move first
+                SearchUtils.moveToFront(moves, count, bestMove);
+                this.deadline = depth > startDepth ? deadline : 0;
+                int move = searchRoot(moves, count, depth);
+                if (aborted) {
+                    break;
+                }
+                bestMove = move;
+                depthCompleted = depth;
+                if (traced) {
+                    int m = board.getSize();
+                    trace.iteration(depth, counters.nodes, bestMove / m, bestMove % m);
+                }
+                if ((deadline != 0 && System.nanoTime() >= deadline) || (stop != null && stop.get())) {
+                    break;
+                }
+            }
+            return bestMove;
+        }
+
+        int searchRoot(int[] moves, int count, int depth) {
+            int bestValue = Integer.MIN_VALUE;
+            int bestMove = moves[0];
+            Player maximizingPlayer = board.getCurrentPlayer();
+
+            for (int i = 0; i < count; i++) {
+                board.play(moves[i]);
+                int moveValue = alphaBeta(1, depth, Integer.MIN_VALUE,
+                        Integer.MAX_VALUE, false, maximizingPlayer);
+                board.undo();
+                if (aborted) {
+                    break;
+                }
+
+                if (moveValue > bestValue) {
+                    bestValue = moveValue;
+                    bestMove = moves[i];
+                }
+            }
+
+            return bestMove;
+        }
+
+        int alphaBeta(int ply, int depth, int alpha, int beta,
+                      boolean isMaximizing, Player originalPlayer) {
+            if (aborted) {
+                return 0;
+            }
+            counters.node(ply);
+            // Reading the clock every node would cost more than the search
+            // itself. An interrupt, as from Future.cancel(true), stops the
+            // search even in a first iteration or a fixed-depth search; the
+            // move returned then is unsearched and meant to be discarded.
+            if ((counters.nodes & 1023) == 0 && ((deadline != 0 && System.nanoTime() >= deadline)
+                    || (stop != null && stop.get()) || Thread.currentThread().isInterrupted())) {
+                aborted = true;
+                return 0;
+            }
+
+            if (board.isTerminal() || depth == 0) {
+                counters.evaluatorCalls++;
+                return evaluator.evaluate(board, originalPlayer);
+            }
+
+            long key = board.getZobristKey();
+            int ttMove = TranspositionTable.NO_MOVE;
+            if (transpositionTable != null) {
+                long entry = transpositionTable.probe(key);
+                counters.probe(entry != TranspositionTable.NO_ENTRY);
+                if (entry != TranspositionTable.NO_ENTRY) {
+                    if (TranspositionTable.depth(entry) >= depth) {
+                        int value = TranspositionTable.value(entry);
+                        int flag = TranspositionTable.flag(entry);
+                        if (flag == TranspositionTable.EXACT
+                                || (flag == TranspositionTable.LOWER_BOUND && value >= beta)
+                                || (flag == TranspositionTable.UPPER_BOUND && value <= alpha)) {
+                            return value;
+                        }
+                    }
+                    ttMove = TranspositionTable.bestMove(entry);
+                }
+            }
+
+            int originalAlpha = alpha;
+            int originalBeta = beta;
+            int[] moves = moveBuffers[ply];
+            int count = board.generateMoves(moves);
+            moveOrdering.orderMoves(board, moves, count, ply);
+            SearchUtils.moveToFront(moves, count, ttMove);
+            int bestMove = moves[0];
+
+            int bestEval;
+            if (isMaximizing) {
+                bestEval = Integer.MIN_VALUE;
+                for (int i = 0; i < count; i++) {
+                    board.play(moves[i]);
+                    int eval = alphaBeta(ply + 1, depth - 1, alpha, beta, false, originalPlayer);
+                    board.undo();
+                    if (eval > bestEval) {
+                        bestEval = eval;
+                        bestMove = moves[i];
+                    }
+                    alpha = Math.max(alpha, eval);
+                    if (beta <= alpha) {
+                        counters.cutoff(ply, i);
+                        moveOrdering.onCutoff(board, moves[i], ply, depth);
+                        break;
+                    }
+                }
+            } else {
+                bestEval = Integer.MAX_VALUE;
+                for (int i = 0; i < count; i++) {
+                    board.play(moves[i]);
+                    int eval = alphaBeta(ply + 1, depth - 1, alpha, beta, true, originalPlayer);
+                    board.undo();
+                    if (eval < bestEval) {
+                        bestEval = eval;
+                        bestMove = moves[i];
+                    }
+                    beta = Math.min(beta, eval);
+                    if (beta <= alpha) {
+                        counters.cutoff(ply, i);
+                        moveOrdering.onCutoff(board, moves[i], ply, depth);
+                        break;
+                    }
+                }
+            }
+
+            // An aborted subtree's value is meaningless and must not be cached
+            if (aborted) {
+                return 0;
+            }
+            if (transpositionTable != null) {
+                transpositionTable.store(key, depth, bestEval,
+                        SearchUtils.boundType(bestEval, originalAlpha, originalBeta),
+                        bestMove);
+            }
+            return bestEval;
+        }
     }
 }
@@ -1,63 +1,103 @@
 package algorithms;
 
 import model.GameState;
+import model.Player;
 import model.Position;
-import java.util.List;
+import model.SearchBoard;
+import monitoring.SearchTrace;
 
-public class MinimaxSolver {
-    private int nodesEvaluated;
+public class MinimaxSolver implements Solver {
+    private int[][] moveBuffers;
+    private int candidateDistance;
+    private SearchStats.Counters counters;
+    private SearchStats stats = SearchStats.EMPTY;
 
     public MinimaxSolver() {
-        this.nodesEvaluated = 0;
     }
 
+    @Override
     public Position findBestMove(GameState state) {
-        nodesEvaluated = 0;
-        List<Position> moves = state.getLegalMoves();
+        long start = System.nanoTime();
+        SearchTrace trace = SearchTrace.begin("MinimaxSolver", state);
+        SearchBoard board = new SearchBoard(state);
+        board.setCandidateDistance(candidateDistance);
+        int m = board.getSize();
+        moveBuffers = SearchUtils.moveBuffers(board, m * m);
+        counters = new SearchStats.Counters(moveBuffers.length);
+        int[] moves = moveBuffers[0];
+        int count = board.generateMoves(moves);
 
+        // Utilities are from X's side; O picks the move with the lowest
+        boolean rootIsX = state.getCurrentPlayer() == Player.X;
         int bestValue = Integer.MIN_VALUE;
-        Position bestMove = null;
+        int bestMove = -1;
 
-        for (Position move : moves) {
-            GameState newState = state.makeMove(move);
-            int moveValue = minimax(newState, false);
+        for (int i = 0; i < count; i++) {
+            board.play(moves[i]);
+            int moveValue = minimax(board, 1, !rootIsX);
+            board.undo();
+            if (!rootIsX) {
+                moveValue = -moveValue;
+            }
 
             if (moveValue > bestValue) {
                 bestValue = moveValue;
-                bestMove = move;
+                bestMove = moves[i];
             }
         }
 
-        return bestMove;
+        stats = new SearchStats(counters, System.nanoTime() - start);
+        SearchUtils.endTrace(trace, stats.getMaxDepth(), stats);
+        return bestMove < 0 ? null : new Position(bestMove / m, bestMove % m);
     }
 
-    private int minimax(GameState state, boolean isMaximizing) {
-        nodesEvaluated++;
+    private int minimax(SearchBoard board, int ply, boolean isMaximizing) {
+        counters.node(ply);
 
-        if (state.isTerminal()) {
-            return state.getUtility();
+        if (board.isTerminal()) {
+            return board.getUtility();
         }
 
+        int[] moves = moveBuffers[ply];
+        int count = board.generateMoves(moves);
+
         if (isMaximizing) {
             int maxEval = Integer.MIN_VALUE;
-            for (Position move : state.getLegalMoves()) {
-                GameState newState = state.makeMove(move);
-                int eval = minimax(newState, false);
+            for (int i = 0; i < count; i++) {
+                board.play(moves[i]);
+                int eval = minimax(board, ply + 1, false);
+                board.undo();
                 maxEval = Math.max(maxEval, eval);
             }
             return maxEval;
         } else {
             int minEval = Integer.MAX_VALUE;
-            for (Position move : state.getLegalMoves()) {
-                GameState newState = state.makeMove(move);
-                int eval = minimax(newState, true);
+            for (int i = 0; i < count; i++) {
+                board.play(moves[i]);
+                int eval = minimax(board, ply + 1, true);
+                board.undo();
                 minEval = Math.min(minEval, eval);
             }
             return minEval;
         }
     }
 
+    // Searches only empty cells within distance king moves of a stone (see
+    // SearchBoard.setCandidateDistance); 0, the default, searches them all
+    public void setCandidateDistance(int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Candidate distance must not be negative: " + distance);
+        }
+        this.candidateDistance = distance;
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    // Saturates at Integer.MAX_VALUE; getStats().getNodes() does not
     public int getNodesEvaluated() {
-        return nodesEvaluated;
+        return (int) Math.min(stats.getNodes(), Integer.MAX_VALUE);
     }
 }
@@ -0,0 +1,151 @@
+package algorithms;
+
+import model.Board;
+import model.Position;
+import model.Symmetry;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Solved positions for one (m, k), read from a file written by
+// OpeningBookBuilder. The file is a 24-byte header followed by entries of
+// canonical key, best move and value, sorted by key; it is memory-mapped, so
+// opening a book reads only the header and a lookup is a binary search over
+// pages the OS brings in on demand.
+//
+// Best moves are stored in the canonical frame, like the exact entries of
+// AlphaBetaSolver's table, so one entry serves all 8 symmetric copies of a
+// position.
+public final class OpeningBook {
+    public static final int WIN = 1;
+    public static final int DRAW = 0;
+    public static final int LOSS = -1;
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    private static final int MAGIC = 0x47545442; // "GTTB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    // key (8), move (2), value (1)
+    private static final int ENTRY_BYTES = 11;
+
+    private final MappedByteBuffer buffer;
+    private final int m;
+    private final int k;
+    private final int maxPly;
+    private final int entryCount;
+
+    private OpeningBook(MappedByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an opening book");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported opening book version: " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.m = buffer.getInt(8);
+        this.k = buffer.getInt(12);
+        this.maxPly = buffer.getInt(16);
+        this.entryCount = buffer.getInt(20);
+        if ((long) HEADER_BYTES + (long) entryCount * ENTRY_BYTES != buffer.capacity()) {
+            throw new IOException("Truncated opening book: " + entryCount + " entries in "
+                    + buffer.capacity() + " bytes");
+        }
+    }
+
+    public static OpeningBook open(Path path) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Writes a book; keys must be canonical keys in ascending order and moves
+    // cells in the canonical frame
+    static void write(Path path, int m, int k, int maxPly, long[] keys, short[] moves, byte[] values,
+                      int count) throws IOException {
+        for (int i = 1; i < count; i++) {
+            if (keys[i - 1] >= keys[i]) {
+                throw new IllegalArgumentException("Book keys must be strictly ascending at entry " + i);
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(m);
+            out.writeInt(k);
+            out.writeInt(maxPly);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(keys[i]);
+                out.writeShort(moves[i]);
+                out.writeByte(values[i]);
+            }
+        }
+    }
+
+    // Best move for the side to move, or null if the position is not in the
+    // book
+    public Position getBestMove(Board state) {
+        int index = find(state);
+        if (index < 0) {
+            return null;
+        }
+        int canonical = buffer.getShort(offset(index) + 8);
+        int cell = Symmetry.applyToCell(Symmetry.inverse(state.getCanonicalTransform()), canonical, m);
+        return new Position(cell / m, cell % m);
+    }
+
+    // WIN, DRAW or LOSS for the side to move, or NOT_FOUND. OpeningBookBuilder
+    // leaves lost positions out, so its books hold only WIN and DRAW.
+    public int getValue(Board state) {
+        int index = find(state);
+        return index < 0 ? NOT_FOUND : buffer.get(offset(index) + 10);
+    }
+
+    public int getSize() {
+        return m;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    // Positions up to this many stones were considered when building
+    public int getMaxPly() {
+        return maxPly;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    private int find(Board state) {
+        if (state.getSize() != m || state.getK() != k || state.getStoneCount() > maxPly) {
+            return -1;
+        }
+        long key = state.getCanonicalKey();
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long probe = buffer.getLong(offset(mid));
+            if (probe < key) {
+                low = mid + 1;
+            } else if (probe > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static int offset(int index) {
+        return HEADER_BYTES + index * ENTRY_BYTES;
+    }
+}
@@ -0,0 +1,161 @@
+package algorithms;
+
+import model.GameState;
+import model.Position;
+import model.Symmetry;
+import engine.GameEngine;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Builds an OpeningBook: every canonical position reachable from the empty
+// board with at most maxPly stones is solved with proof-number search and
+// written out sorted by key. Positions the solver cannot settle within its
+// limits are left out, so the book only ever holds proven values. Lost
+// positions are left out too: any move loses, so there is no best move to
+// store, and a search can still pick one that holds out longest.
+//
+// Usage: java algorithms.OpeningBookBuilder <m> <k> <maxPly> <file> [maxNodes]
+public class OpeningBookBuilder {
+    private final int m;
+    private final int k;
+    private final int maxPly;
+    private final ProofNumberSolver solver;
+    private int positionCount;
+    private int unsolvedCount;
+    private int lostCount;
+
+    public OpeningBookBuilder(int m, int k, int maxPly) {
+        this(m, k, maxPly, new ProofNumberSolver());
+    }
+
+    public OpeningBookBuilder(int m, int k, int maxPly, ProofNumberSolver solver) {
+        if (maxPly < 0 || maxPly >= m * m) {
+            throw new IllegalArgumentException("Book depth must be between 0 and " + (m * m - 1) + ": " + maxPly);
+        }
+        this.m = m;
+        this.k = k;
+        this.maxPly = maxPly;
+        this.solver = solver;
+    }
+
+    // Returns the number of entries written
+    public int build(Path path) throws IOException {
+        positionCount = 0;
+        unsolvedCount = 0;
+        lostCount = 0;
+        int capacity = 1024;
+        long[] keys = new long[capacity];
+        short[] moves = new short[capacity];
+        byte[] values = new byte[capacity];
+        int count = 0;
+
+        // Level by level, one representative per canonical position
+        List<GameState> level = new ArrayList<>();
+        level.add(GameEngine.initialState(m, k));
+        for (int ply = 0; ply <= maxPly && !level.isEmpty(); ply++) {
+            List<GameState> next = new ArrayList<>();
+            Set<Long> seen = new HashSet<>();
+            for (GameState state : level) {
+                positionCount++;
+                ProofNumberSolver.Result result = solver.solve(state);
+                if (result == ProofNumberSolver.Result.UNKNOWN) {
+                    unsolvedCount++;
+                } else if (result == ProofNumberSolver.Result.LOSS) {
+                    lostCount++;
+                } else {
+                    if (count == capacity) {
+                        capacity *= 2;
+                        keys = Arrays.copyOf(keys, capacity);
+                        moves = Arrays.copyOf(moves, capacity);
+                        values = Arrays.copyOf(values, capacity);
+                    }
+                    Position best = solver.getBestMove();
+                    keys[count] = state.getCanonicalKey();
+                    moves[count] = (short) Symmetry.applyToCell(state.getCanonicalTransform(),
+                            best.row * m + best.col, m);
+                    values[count] = (byte) value(result);
+                    count++;
+                }
+
+                if (ply == maxPly) {
+                    continue;
+                }
+                for (Position move : state.getLegalMoves()) {
+                    GameState child = state.makeMove(move);
+                    if (!child.isTerminal() && seen.add(child.getCanonicalKey())) {
+                        next.add(child);
+                    }
+                }
+            }
+            level = next;
+        }
+
+        sortByKey(keys, moves, values, count);
+        OpeningBook.write(path, m, k, maxPly, keys, moves, values, count);
+        return count;
+    }
+
+    // Non-terminal positions visited by the last build, solved or not
+    public int getPositionCount() {
+        return positionCount;
+    }
+
+    // Positions the last build left out because the solver hit its limits
+    public int getUnsolvedCount() {
+        return unsolvedCount;
+    }
+
+    // Positions the last build left out because the side to move is lost
+    public int getLostCount() {
+        return lostCount;
+    }
+
+    private static int value(ProofNumberSolver.Result result) {
+        return result == ProofNumberSolver.Result.WIN ? OpeningBook.WIN : OpeningBook.DRAW;
+    }
+
+    private static void sortByKey(long[] keys, short[] moves, byte[] values, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        long[] sortKeys = keys;
+        Arrays.sort(order, (a, b) -> Long.compare(sortKeys[a], sortKeys[b]));
+
+        long[] keyCopy = Arrays.copyOf(keys, count);
+        short[] moveCopy = Arrays.copyOf(moves, count);
+        byte[] valueCopy = Arrays.copyOf(values, count);
+        for (int i = 0; i < count; i++) {
+            keys[i] = keyCopy[order[i]];
+            moves[i] = moveCopy[order[i]];
+            values[i] = valueCopy[order[i]];
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: java algorithms.OpeningBookBuilder <m> <k> <maxPly> <file> [maxNodes]");
+            System.exit(1);
+        }
+        int m = Integer.parseInt(args[0]);
+        int k = Integer.parseInt(args[1]);
+        int maxPly = Integer.parseInt(args[2]);
+        Path path = Paths.get(args[3]);
+        ProofNumberSolver solver = args.length > 4
+                ? new ProofNumberSolver(1 << 20, Long.parseLong(args[4]), 0)
+                : new ProofNumberSolver();
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(m, k, maxPly, solver);
+        long start = System.currentTimeMillis();
+        int entries = builder.build(path);
+        System.out.println("Wrote " + entries + " of " + builder.getPositionCount() + " positions to " + path
+                + " in " + (System.currentTimeMillis() - start) + "ms ("
+                + builder.getUnsolvedCount() + " unsolved, " + builder.getLostCount() + " lost)");
+    }
+}
@@ -0,0 +1,350 @@
+package algorithms;
+
+import model.GameState;
+import model.Player;
+import model.Position;
+import model.SearchBoard;
+import engine.HeuristicEvaluator;
+import monitoring.SearchTrace;
+import strategies.MoveOrderingStrategy;
+import strategies.DefaultMoveOrdering;
+import java.util.ArrayList;
+import java.util.List;
+
+// Negamax principal variation search. The first move at each node is
+// searched with the full window; every later move gets a zero-window scout
+// that only proves it is no better, and is re-searched only if the scout
+// fails high. Iterative deepening supplies the move order for the next
+// iteration and an aspiration window around its score.
+//
+// Depth has the same meaning as in DepthLimitedSolver and leaves are scored
+// from the root player's side, so both solvers agree on the value of every
+// position; this one just visits fewer nodes to find it.
+public class PrincipalVariationSolver implements Solver {
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int DEFAULT_ASPIRATION_WINDOW = 50;
+
+    private int maxDepth;
+    private HeuristicEvaluator evaluator;
+    private MoveOrderingStrategy moveOrdering;
+    private TranspositionTable transpositionTable;
+    private int aspirationWindow;
+    private int candidateDistance;
+    private OpeningBook openingBook;
+    private SearchStats stats = SearchStats.EMPTY;
+    private int depthReached;
+    private int score;
+    private List<Position> principalVariation = new ArrayList<>();
+
+    public PrincipalVariationSolver(int maxDepth) {
+        this(maxDepth, new HeuristicEvaluator(true), new DefaultMoveOrdering());
+    }
+
+    public PrincipalVariationSolver(int maxDepth, HeuristicEvaluator evaluator, MoveOrderingStrategy moveOrdering) {
+        this(maxDepth, evaluator, moveOrdering, new TranspositionTable(), DEFAULT_ASPIRATION_WINDOW);
+    }
+
+    // Pass a null table to search without transposition lookups, and an
+    // aspiration window of 0 to search every iteration with the full window
+    public PrincipalVariationSolver(int maxDepth, HeuristicEvaluator evaluator, MoveOrderingStrategy moveOrdering,
+                                    TranspositionTable transpositionTable, int aspirationWindow) {
+        if (aspirationWindow < 0) {
+            throw new IllegalArgumentException("Aspiration window must not be negative: " + aspirationWindow);
+        }
+        this.maxDepth = maxDepth;
+        this.evaluator = evaluator;
+        this.moveOrdering = moveOrdering;
+        this.transpositionTable = transpositionTable;
+        this.aspirationWindow = aspirationWindow;
+    }
+
+    @Override
+    public Position findBestMove(GameState state) {
+        int emptyCells = state.getSize() * state.getSize() - state.getStoneCount();
+        return search(state, Math.min(maxDepth, emptyCells - 1), 0);
+    }
+
+    // Deepens until the budget runs out, like DepthLimitedSolver's timed
+    // search; the first iteration always completes
+    public Position findBestMove(GameState state, long timeBudgetMillis) {
+        int emptyCells = state.getSize() * state.getSize() - state.getStoneCount();
+        return search(state, emptyCells - 1, System.nanoTime() + timeBudgetMillis * 1_000_000L);
+    }
+
+    private Position search(GameState state, int lastDepth, long deadline) {
+        long start = System.nanoTime();
+        SearchTrace trace = SearchTrace.begin("PrincipalVariationSolver", state);
+        if (openingBook != null) {
+            Position booked = openingBook.getBestMove(state);
+            if (booked != null) {
+                // Book values are game results, on the scale of a terminal
+                // position's score
+                stats = new SearchStats(new SearchStats.Counters(0), System.nanoTime() - start);
+                depthReached = 0;
+                score = openingBook.getValue(state);
+                principalVariation = new ArrayList<>();
+                principalVariation.add(booked);
+                SearchUtils.endTrace(trace, depthReached, stats);
+                return booked;
+            }
+        }
+        // Scores are relative to the root player, so entries from an earlier
+        // call cannot be reused
+        if (transpositionTable != null) {
+            transpositionTable.clear();
+        }
+        moveOrdering.onSearchStart();
+        Search search = new Search(state, lastDepth + 2);
+        int m = state.getSize();
+        int[] moves = search.moveBuffers[0];
+        int count = SearchUtils.rootMoves(search.board, moves, moveOrdering);
+
+        int[] bestLine = {moves[0]};
+        int bestLength = 1;
+        int bestScore = 0;
+        depthReached = -1;
+        for (int depth = 0; depth <= lastDepth; depth++) {
+            SearchUtils.moveToFront(moves, count, bestLine[0]);
+            search.deadline = depth > 0 ? deadline : 0;
+
+            int value = depth == 0 || aspirationWindow == 0
+                    ? search.searchRoot(moves, count, depth, -INFINITY, INFINITY)
+                    : search.aspirate(moves, count, depth, bestScore);
+            if (search.aborted) {
+                break;
+            }
+            bestScore = value;
+            bestLength = search.pvLength[0];
+            bestLine = new int[bestLength];
+            System.arraycopy(search.pv[0], 0, bestLine, 0, bestLength);
+            depthReached = depth;
+            trace.iteration(depth, search.counters.nodes, bestLine[0] / m, bestLine[0] % m);
+            if (deadline != 0 && System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+
+        stats = new SearchStats(search.counters, System.nanoTime() - start);
+        SearchUtils.endTrace(trace, depthReached, stats);
+        score = bestScore;
+        principalVariation = new ArrayList<>(bestLength);
+        for (int i = 0; i < bestLength; i++) {
+            principalVariation.add(new Position(bestLine[i] / m, bestLine[i] % m));
+        }
+        return principalVariation.get(0);
+    }
+
+    // Searches only empty cells within distance king moves of a stone (see
+    // SearchBoard.setCandidateDistance); 0, the default, searches them all
+    public void setCandidateDistance(int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Candidate distance must not be negative: " + distance);
+        }
+        this.candidateDistance = distance;
+    }
+
+    // Positions found in the book are answered from it without searching;
+    // pass null to always search
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    public int getDepthReached() {
+        return depthReached;
+    }
+
+    // Expected line of play from the last search, starting with the move it
+    // returned
+    public List<Position> getPrincipalVariation() {
+        return new ArrayList<>(principalVariation);
+    }
+
+    // Value of the last search's best move for the player who was to move
+    public int getScore() {
+        return score;
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    // Saturates at Integer.MAX_VALUE; getStats().getNodes() does not
+    public int getNodesEvaluated() {
+        return (int) Math.min(stats.getNodes(), Integer.MAX_VALUE);
+    }
+
+    private class Search {
+        final SearchBoard board;
+        final Player rootPlayer;
+        final int[][] moveBuffers;
+        // pv[ply] holds the best line found from ply, triangular-array style
+        final int[][] pv;
+        final int[] pvLength;
+        final SearchStats.Counters counters;
+        long deadline;
+        boolean aborted;
+
+        Search(GameState state, int plies) {
+            this.board = new SearchBoard(state);
+            board.setCandidateDistance(candidateDistance);
+            this.rootPlayer = state.getCurrentPlayer();
+            this.moveBuffers = SearchUtils.moveBuffers(board, plies);
+            this.pv = new int[moveBuffers.length][moveBuffers.length];
+            this.pvLength = new int[moveBuffers.length];
+            this.counters = new SearchStats.Counters(moveBuffers.length);
+        }
+
+        // Searches with a window around the previous score, widening the side
+        // that failed by a growing margin until the score lands inside
+        int aspirate(int[] moves, int count, int depth, int previous) {
+            long delta = aspirationWindow;
+            long alpha = (long) previous - delta;
+            long beta = (long) previous + delta;
+            while (true) {
+                int low = (int) Math.max(alpha, -INFINITY);
+                int high = (int) Math.min(beta, INFINITY);
+                int value = searchRoot(moves, count, depth, low, high);
+                if (aborted) {
+                    return 0;
+                }
+                delta *= 4;
+                if (value <= low && low > -INFINITY) {
+                    alpha = (long) value - delta;
+                } else if (value >= high && high < INFINITY) {
+                    beta = (long) value + delta;
+                } else {
+                    return value;
+                }
+            }
+        }
+
+        int searchRoot(int[] moves, int count, int depth, int alpha, int beta) {
+            int bestValue = -INFINITY;
+            pvLength[0] = 0;
+
+            for (int i = 0; i < count; i++) {
+                board.play(moves[i]);
+                int value;
+                if (i == 0) {
+                    value = -pvs(1, depth, -beta, -alpha);
+                } else {
+                    value = -pvs(1, depth, -alpha - 1, -alpha);
+                    if (value > alpha && value < beta) {
+                        value = -pvs(1, depth, -beta, -alpha);
+                    }
+                }
+                board.undo();
+                if (aborted) {
+                    return 0;
+                }
+
+                if (value > bestValue) {
+                    bestValue = value;
+                    updatePv(0, moves[i]);
+                    if (value > alpha) {
+                        alpha = value;
+                    }
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+            return bestValue;
+        }
+
+        int pvs(int ply, int depth, int alpha, int beta) {
+            pvLength[ply] = 0;
+            if (aborted) {
+                return 0;
+            }
+            counters.node(ply);
+            // Reading the clock every node would cost more than the search itself
+            if ((counters.nodes & 1023) == 0 && deadline != 0 && System.nanoTime() >= deadline) {
+                aborted = true;
+                return 0;
+            }
+
+            if (board.isTerminal() || depth == 0) {
+                counters.evaluatorCalls++;
+                int value = evaluator.evaluate(board, rootPlayer);
+                return board.getCurrentPlayer() == rootPlayer ? value : -value;
+            }
+
+            // Table cutoffs are only taken at scout nodes, so the principal
+            // variation is never cut short by a cached result
+            boolean isPvNode = beta - alpha > 1;
+            long key = board.getZobristKey();
+            int ttMove = TranspositionTable.NO_MOVE;
+            if (transpositionTable != null) {
+                long entry = transpositionTable.probe(key);
+                counters.probe(entry != TranspositionTable.NO_ENTRY);
+                if (entry != TranspositionTable.NO_ENTRY) {
+                    if (!isPvNode && TranspositionTable.depth(entry) >= depth) {
+                        int value = TranspositionTable.value(entry);
+                        int flag = TranspositionTable.flag(entry);
+                        if (flag == TranspositionTable.EXACT
+                                || (flag == TranspositionTable.LOWER_BOUND && value >= beta)
+                                || (flag == TranspositionTable.UPPER_BOUND && value <= alpha)) {
+                            return value;
+                        }
+                    }
+                    ttMove = TranspositionTable.bestMove(entry);
+                }
+            }
+
+            int originalAlpha = alpha;
+            int[] moves = moveBuffers[ply];
+            int count = board.generateMoves(moves);
+            moveOrdering.orderMoves(board, moves, count, ply);
+            SearchUtils.moveToFront(moves, count, ttMove);
+            int bestMove = moves[0];
+            int bestValue = -INFINITY;
+
+            for (int i = 0; i < count; i++) {
+                board.play(moves[i]);
+                int value;
+                if (i == 0) {
+                    value = -pvs(ply + 1, depth - 1, -beta, -alpha);
+                } else {
+                    value = -pvs(ply + 1, depth - 1, -alpha - 1, -alpha);
+                    if (value > alpha && value < beta) {
+                        value = -pvs(ply + 1, depth - 1, -beta, -alpha);
+                    }
+                }
+                board.undo();
+                if (aborted) {
+                    return 0;
+                }
+
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestMove = moves[i];
+                    updatePv(ply, moves[i]);
+                    if (value > alpha) {
+                        alpha = value;
+                    }
+                    if (alpha >= beta) {
+                        counters.cutoff(ply, i);
+                        moveOrdering.onCutoff(board, moves[i], ply, depth);
+                        break;
+                    }
+                }
+            }
+
+            if (transpositionTable != null) {
+                transpositionTable.store(key, depth, bestValue,
+                        SearchUtils.boundType(bestValue, originalAlpha, beta), bestMove);
+            }
+            return bestValue;
+        }
+
+        // The line from ply is move followed by the line just found below it
+        private void updatePv(int ply, int move) {
+            pv[ply][0] = move;
+            int childLength = pvLength[ply + 1];
+            System.arraycopy(pv[ply + 1], 0, pv[ply], 1, childLength);
+            pvLength[ply] = childLength + 1;
+        }
+    }
+}
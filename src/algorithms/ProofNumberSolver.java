@@ -0,0 +1,453 @@
+package algorithms;
+
+import model.GameState;
+import model.Player;
+import model.Position;
+import model.SearchBoard;
+import model.WindowCounts;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+// Depth-first proof-number search (df-pn) for the exact value of a position.
+// Each run proves or disproves one goal, "player wins": a win is one proof
+// for the side to move, and a draw is a failed proof for each side, so
+// solve() needs at most two runs.
+//
+// Nodes are written in the phi/delta form: at a node where the goal's
+// player moves phi is the proof number and delta the disproof number, and
+// the other way round where the opponent moves. A node's phi is the least
+// delta of its children and its delta the sum of their phis; a node is
+// searched until one of them reaches the thresholds passed down to it, so
+// only the current path lives on the stack and all other state is in the
+// bounded table. Children take the 1 + epsilon threshold of Pawlewicz and
+// Lew, which keeps the search from switching between siblings too often.
+public class ProofNumberSolver {
+    public enum Result { WIN, LOSS, DRAW, UNKNOWN }
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int DEFAULT_TABLE_SIZE = 1 << 20;
+    private static final long DEFAULT_MAX_NODES = 50_000_000L;
+
+    private final ProofTable table;
+    private final long maxNodes;
+    private final long timeLimitMillis;
+    private SearchStats stats = SearchStats.EMPTY;
+    private long proofSize;
+    private Position bestMove;
+
+    public ProofNumberSolver() {
+        this(DEFAULT_TABLE_SIZE, DEFAULT_MAX_NODES, 0);
+    }
+
+    // The table holds tableSize entries of 28 bytes however long the search
+    // runs; a time limit of 0 means none
+    public ProofNumberSolver(int tableSize, long maxNodes, long timeLimitMillis) {
+        if (maxNodes <= 0 || timeLimitMillis < 0) {
+            throw new IllegalArgumentException("Invalid proof search limits: nodes=" + maxNodes
+                    + ", time=" + timeLimitMillis);
+        }
+        this.table = new ProofTable(tableSize);
+        this.maxNodes = maxNodes;
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    // Value of the position for the side to move, or UNKNOWN if a limit was
+    // hit first
+    public Result solve(GameState state) {
+        long start = System.nanoTime();
+        proofSize = 0;
+        bestMove = null;
+        stats = SearchStats.EMPTY;
+        if (state.isTerminal()) {
+            return state.getWinner() == null ? Result.DRAW : Result.LOSS;
+        }
+
+        long deadline = timeLimitMillis == 0 ? 0 : System.nanoTime() + timeLimitMillis * 1_000_000L;
+        Player player = state.getCurrentPlayer();
+        SearchStats.Counters counters = new SearchStats.Counters(0);
+
+        Search win = new Search(state, player, deadline, counters);
+        int winResult = win.run();
+        stats = new SearchStats(counters, System.nanoTime() - start);
+        if (winResult == Search.PROVEN) {
+            proofSize = win.proofSize();
+            bestMove = win.rootMove();
+            return Result.WIN;
+        }
+        if (winResult == Search.UNRESOLVED) {
+            return Result.UNKNOWN;
+        }
+
+        Search loss = new Search(state, player.getOpponent(), deadline, counters);
+        int lossResult = loss.run();
+        stats = new SearchStats(counters, System.nanoTime() - start);
+        if (lossResult == Search.UNRESOLVED) {
+            return Result.UNKNOWN;
+        }
+        proofSize = loss.proofSize();
+        bestMove = loss.rootMove();
+        return lossResult == Search.PROVEN ? Result.LOSS : Result.DRAW;
+    }
+
+    // A move that achieves the last result: the winning move for WIN, a
+    // drawing move for DRAW, any move for LOSS; null when UNKNOWN
+    public Position getBestMove() {
+        return bestMove;
+    }
+
+    // Nodes in the proof (or disproof) tree of the last result, counting
+    // transpositions once; entries lost from the table count as single nodes
+    public long getProofSize() {
+        return proofSize;
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    public long getNodesEvaluated() {
+        return stats.getNodes();
+    }
+
+    private class Search {
+        static final int PROVEN = 1;
+        static final int DISPROVEN = 2;
+        static final int UNRESOLVED = 3;
+
+        final SearchBoard board;
+        final WindowCounts counts;
+        final Player attacker;
+        final int m;
+        final int k;
+        final long deadline;
+        final int[][] moves;
+        final long[][] childKeys;
+        final int[][] childPhi;
+        final int[][] childDelta;
+        // Shared by both runs of a solve
+        final SearchStats.Counters counters;
+        // Numbers of the node mid last returned from
+        int resultPhi;
+        int resultDelta;
+        boolean aborted;
+        // Root child that proved the root's phi, recorded as mid returns
+        // from the root, since the table may drop its entry before the
+        // search ends; -1 when none did
+        int provingMove = -1;
+        // Whether every root move achieves the result: the goal was hopeless
+        // from the start, or the root's delta is 0
+        boolean anyMove;
+
+        Search(GameState state, Player attacker, long deadline, SearchStats.Counters counters) {
+            this.board = new SearchBoard(state);
+            this.counts = board.getWindowCounts();
+            this.attacker = attacker;
+            this.m = state.getSize();
+            this.k = state.getK();
+            this.deadline = deadline;
+            this.counters = counters;
+            int empty = m * m - state.getStoneCount();
+            this.moves = new int[empty + 1][];
+            this.childKeys = new long[empty + 1][];
+            this.childPhi = new int[empty + 1][];
+            this.childDelta = new int[empty + 1][];
+            for (int ply = 0; ply <= empty; ply++) {
+                moves[ply] = new int[empty - ply];
+                childKeys[ply] = new long[empty - ply];
+                childPhi[ply] = new int[empty - ply];
+                childDelta[ply] = new int[empty - ply];
+            }
+            // Entries hold proofs of this run's goal only
+            table.clear();
+        }
+
+        int run() {
+            if (hopeless()) {
+                anyMove = true;
+                return DISPROVEN;
+            }
+            mid(0, INFINITY - 1, INFINITY - 1);
+            if (aborted) {
+                return UNRESOLVED;
+            }
+            // The root is a phi/delta node of the player to move
+            boolean attackerToMove = board.getCurrentPlayer() == attacker;
+            int proof = attackerToMove ? resultPhi : resultDelta;
+            int disproof = attackerToMove ? resultDelta : resultPhi;
+            if (proof == 0) return PROVEN;
+            if (disproof == 0) return DISPROVEN;
+            return UNRESOLVED;
+        }
+
+        void mid(int ply, int thPhi, int thDelta) {
+            counters.node(ply);
+            long nodes = counters.nodes;
+            if ((nodes & 1023) == 0 && deadline != 0 && System.nanoTime() >= deadline) {
+                aborted = true;
+            }
+            if (nodes > maxNodes) {
+                aborted = true;
+            }
+
+            long key = board.getCanonicalKey();
+            long start = nodes;
+            int count = expand(ply);
+            int[] children = moves[ply];
+            int[] phis = childPhi[ply];
+            int[] deltas = childDelta[ply];
+
+            while (true) {
+                int phi = INFINITY;
+                long deltaSum = 0;
+                int best = -1;
+                int delta2 = INFINITY;
+                for (int i = 0; i < count; i++) {
+                    int childDelta = deltas[i];
+                    deltaSum += phis[i];
+                    if (best < 0 || childDelta < deltas[best]) {
+                        if (best >= 0) {
+                            delta2 = deltas[best];
+                        }
+                        best = i;
+                    } else if (childDelta < delta2) {
+                        delta2 = childDelta;
+                    }
+                    phi = Math.min(phi, childDelta);
+                }
+                int delta = (int) Math.min(deltaSum, INFINITY);
+
+                if (phi >= thPhi || delta >= thDelta || aborted) {
+                    table.store(key, phi, delta, counters.nodes - start + 1);
+                    resultPhi = phi;
+                    resultDelta = delta;
+                    if (ply == 0) {
+                        provingMove = phi == 0 ? children[best] : -1;
+                        anyMove = delta == 0;
+                    }
+                    return;
+                }
+
+                long childThPhi = (long) thDelta - delta + phis[best];
+                long epsilonDelta = delta2 == INFINITY ? INFINITY : (long) delta2 + delta2 / 4 + 1;
+                int childThDelta = (int) Math.min(thPhi, epsilonDelta);
+                board.play(children[best]);
+                mid(ply + 1, (int) Math.min(childThPhi, INFINITY - 1), childThDelta);
+                board.undo();
+                // Taken from the call rather than the table, which may
+                // already have dropped the entry
+                phis[best] = resultPhi;
+                deltas[best] = resultDelta;
+            }
+        }
+
+        // Generates the children of the node at ply, dropping mirror images
+        // of earlier children, and records their keys and numbers; terminal
+        // and hopeless children are solved on the spot
+        private int expand(int ply) {
+            int[] children = moves[ply];
+            long[] keys = childKeys[ply];
+            int count = board.generateMoves(children);
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                board.play(children[i]);
+                long key = board.getCanonicalKey();
+                boolean duplicate = false;
+                for (int j = 0; j < unique; j++) {
+                    if (keys[j] == key) {
+                        duplicate = true;
+                        break;
+                    }
+                }
+                if (!duplicate) {
+                    children[unique] = children[i];
+                    keys[unique] = key;
+                    boolean terminal = board.isTerminal();
+                    if (terminal || hopeless()) {
+                        boolean proven = terminal && board.getWinner() == attacker;
+                        boolean attackerToMove = board.getCurrentPlayer() == attacker;
+                        int proof = proven ? 0 : INFINITY;
+                        int disproof = proven ? INFINITY : 0;
+                        childPhi[ply][unique] = attackerToMove ? proof : disproof;
+                        childDelta[ply][unique] = attackerToMove ? disproof : proof;
+                    } else {
+                        lookup(ply, unique);
+                    }
+                    unique++;
+                }
+                board.undo();
+            }
+            return unique;
+        }
+
+        // Whether the attacker can no longer win: every window holds a
+        // defender stone, or none can be filled with the moves left. Draws
+        // are disproved here long before the board is full.
+        private boolean hopeless() {
+            if (counts.getLiveWindows(attacker) == 0) {
+                return true;
+            }
+            int most = 0;
+            for (int n = k - 1; n > 0; n--) {
+                if (counts.getOpenWindows(attacker, n) > 0) {
+                    most = n;
+                    break;
+                }
+            }
+            int empty = m * m - board.getStoneCount();
+            int movesLeft = board.getCurrentPlayer() == attacker ? (empty + 1) / 2 : empty / 2;
+            return k - most > movesLeft;
+        }
+
+        // Unknown children start at phi = delta = 1
+        private void lookup(int ply, int i) {
+            long entry = table.probe(childKeys[ply][i]);
+            counters.probe(entry != ProofTable.NO_ENTRY);
+            if (entry == ProofTable.NO_ENTRY) {
+                childPhi[ply][i] = 1;
+                childDelta[ply][i] = 1;
+            } else {
+                childPhi[ply][i] = ProofTable.phi(entry);
+                childDelta[ply][i] = ProofTable.delta(entry);
+            }
+        }
+
+        // Root move of the result: the child whose delta of 0 proved the
+        // root's phi, which is the goal at attacker nodes and the refutation
+        // at defender nodes, or the first move when any will do
+        Position rootMove() {
+            if (provingMove >= 0) {
+                return new Position(provingMove / m, provingMove % m);
+            }
+            if (!anyMove) {
+                throw new IllegalStateException("No root move was recorded for the result");
+            }
+            board.generateMoves(moves[0]);
+            return new Position(moves[0][0] / m, moves[0][0] % m);
+        }
+
+        // Counts the solution tree: one zero-delta child at each node whose
+        // phi is 0, every child where delta is 0
+        long proofSize() {
+            Set<Long> seen = new HashSet<>();
+            return countProof(0, seen);
+        }
+
+        private long countProof(int ply, Set<Long> seen) {
+            if (!seen.add(board.getCanonicalKey())) {
+                return 0;
+            }
+            if (board.isTerminal()) {
+                return 1;
+            }
+            long entry = table.probe(board.getCanonicalKey());
+            if (entry == ProofTable.NO_ENTRY) {
+                return 1;
+            }
+
+            int count = expand(ply);
+            long size = 1;
+            boolean allChildren = ProofTable.delta(entry) == 0;
+            for (int i = 0; i < count; i++) {
+                if (allChildren ? childPhi[ply][i] == 0 : childDelta[ply][i] == 0) {
+                    board.play(moves[ply][i]);
+                    size += countProof(ply + 1, seen);
+                    board.undo();
+                    if (!allChildren) {
+                        break;
+                    }
+                }
+            }
+            return size;
+        }
+    }
+
+    // Four-slot buckets of (key, phi, delta, work), where work is the number
+    // of nodes searched to reach the entry. Entries are stamped with the run
+    // that wrote them, so clearing between runs is a counter increment. A full bucket gives up its
+    // cheapest unsolved entry, or its cheapest entry if all are solved, so
+    // proofs and expensive work in progress outlive the cheap leaves a
+    // df-pn search produces in bulk; without this a small table re-searches
+    // the same subtrees over and over.
+    private static class ProofTable {
+        static final long NO_ENTRY = -1L;
+        private static final int BUCKET = 4;
+
+        private final long[] keys;
+        private final long[] values;
+        private final long[] work;
+        private final int[] runs;
+        private final int mask;
+        private int run;
+
+        ProofTable(int capacity) {
+            int size = Integer.highestOneBit(Math.max(BUCKET, capacity - 1)) << 1;
+            this.keys = new long[size];
+            this.values = new long[size];
+            this.work = new long[size];
+            this.runs = new int[size];
+            this.mask = size - BUCKET;
+            clear();
+        }
+
+        void clear() {
+            if (++run == 0) {
+                Arrays.fill(runs, 0);
+                run = 1;
+            }
+        }
+
+        long probe(long key) {
+            int bucket = bucket(key);
+            for (int slot = bucket; slot < bucket + BUCKET; slot++) {
+                if (runs[slot] == run && keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return NO_ENTRY;
+        }
+
+        void store(long key, int phi, int delta, long nodes) {
+            int bucket = bucket(key);
+            int target = -1;
+            for (int slot = bucket; slot < bucket + BUCKET; slot++) {
+                if (runs[slot] != run || keys[slot] == key) {
+                    target = slot;
+                    break;
+                }
+                if (target < 0 || replaces(slot, target)) {
+                    target = slot;
+                }
+            }
+            keys[target] = key;
+            values[target] = ((long) phi << 32) | (delta & 0xFFFFFFFFL);
+            work[target] = nodes;
+            runs[target] = run;
+        }
+
+        static int phi(long value) {
+            return (int) (value >>> 32);
+        }
+
+        static int delta(long value) {
+            return (int) value;
+        }
+
+        // Whether slot is a better victim than the current one
+        private boolean replaces(int slot, int current) {
+            boolean solved = solved(values[slot]);
+            if (solved != solved(values[current])) {
+                return !solved;
+            }
+            return work[slot] < work[current];
+        }
+
+        private static boolean solved(long value) {
+            return phi(value) == 0 || delta(value) == 0;
+        }
+
+        private int bucket(long key) {
+            return (int) (key ^ (key >>> 32)) & mask;
+        }
+    }
+}
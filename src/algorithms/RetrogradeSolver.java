@@ -0,0 +1,285 @@
+package algorithms;
+
+import model.Board;
+import model.LineWindows;
+import model.Player;
+import model.Position;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+// Exhaustive solver for boards of up to 16 cells. Every board is ranked in
+// base 3 (cell i contributes 3^i times 0, 1 for X or 2 for O) and its value
+// for the side to move is kept in 2 bits of a packed long[], about 10 MB
+// for 4x4. Placing a stone only ever adds to the rank, so a sweep from the
+// full board down to the empty one finds every child solved before its
+// parent. Boards of one stone count depend only on the next count, so each
+// level is split across the pool.
+//
+// Once solved, the value of any position and a best move are table lookups.
+public class RetrogradeSolver {
+    public static final int MAX_CELLS = 16;
+
+    public static final int WIN = 1;
+    public static final int DRAW = 0;
+    public static final int LOSS = -1;
+
+    // 2-bit codes; boards no game can reach stay UNSET
+    private static final int UNSET = 0;
+    private static final int CODE_WIN = 1;
+    private static final int CODE_DRAW = 2;
+    private static final int CODE_LOSS = 3;
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int X_MASKS_PER_TASK = 64;
+
+    private final int m;
+    private final int k;
+    private final int cells;
+    private final int[] lineMasks;
+    // Base-3 rank of a cell mask, split in halves to keep the tables small
+    private final int[] lowRanks;
+    private final int[] highRanks;
+    private final int[] powers;
+    private long[] values;
+
+    public RetrogradeSolver(int m, int k) {
+        if (m * m > MAX_CELLS) {
+            throw new IllegalArgumentException("Retrograde solving is limited to " + MAX_CELLS
+                    + " cells: " + m + "x" + m);
+        }
+        this.m = m;
+        this.k = k;
+        this.cells = m * m;
+
+        LineWindows windows = LineWindows.forBoard(m, k);
+        this.lineMasks = new int[windows.getWindowCount()];
+        for (int w = 0; w < lineMasks.length; w++) {
+            for (int i = 0; i < k; i++) {
+                lineMasks[w] |= 1 << windows.getCell(w, i);
+            }
+        }
+
+        this.powers = new int[cells + 1];
+        powers[0] = 1;
+        for (int i = 1; i <= cells; i++) {
+            powers[i] = powers[i - 1] * 3;
+        }
+        this.lowRanks = new int[256];
+        this.highRanks = new int[256];
+        for (int bits = 0; bits < 256; bits++) {
+            for (int i = 0; i < 8; i++) {
+                if ((bits & (1 << i)) != 0) {
+                    lowRanks[bits] += i < cells ? powers[i] : 0;
+                    highRanks[bits] += i + 8 < cells ? powers[i + 8] : 0;
+                }
+            }
+        }
+    }
+
+    public void solve() {
+        solve(ForkJoinPool.commonPool());
+    }
+
+    public void solve(ForkJoinPool pool) {
+        long[] table = new long[(int) (((long) powers[cells] * 2 + 63) / 64)];
+        for (int stones = cells; stones >= 0; stones--) {
+            solveLevel(pool, table, stones);
+        }
+        this.values = table;
+    }
+
+    private void solveLevel(ForkJoinPool pool, long[] table, int stones) {
+        int oCount = stones / 2;
+        List<Integer> xMasks = combinations(cells, (stones + 1) / 2);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int from = 0; from < xMasks.size(); from += X_MASKS_PER_TASK) {
+            List<Integer> chunk = xMasks.subList(from, Math.min(from + X_MASKS_PER_TASK, xMasks.size()));
+            tasks.add(() -> {
+                for (int x : chunk) {
+                    solveBoards(table, x, oCount, stones);
+                }
+                return 0;
+            });
+        }
+        // The pool's join orders this level's writes before the next
+        // level's reads
+        SearchUtils.invokeAll(pool, tasks);
+    }
+
+    // Solves every board with X on the cells of x and oCount O stones
+    private void solveBoards(long[] table, int x, int oCount, int stones) {
+        int free = ~x & ((1 << cells) - 1);
+        int[] freeCells = new int[Integer.bitCount(free)];
+        for (int i = 0, bits = free; bits != 0; bits &= bits - 1) {
+            freeCells[i++] = Integer.numberOfTrailingZeros(bits);
+        }
+        int xRank = rank(x);
+        int limit = 1 << freeCells.length;
+        for (int pick = (1 << oCount) - 1; pick < limit; pick = nextCombination(pick)) {
+            int o = 0;
+            for (int bits = pick; bits != 0; bits &= bits - 1) {
+                o |= 1 << freeCells[Integer.numberOfTrailingZeros(bits)];
+            }
+            int index = xRank + 2 * rank(o);
+            int code = solveBoard(table, x, o, index, stones);
+            if (code != UNSET) {
+                // Neighbouring boards share words across tasks
+                WORDS.getAndBitwiseOr(table, index >>> 5, (long) code << ((index & 31) << 1));
+            }
+            if (pick == 0) {
+                break;
+            }
+        }
+    }
+
+    private int solveBoard(long[] table, int x, int o, int index, int stones) {
+        boolean xToMove = stones % 2 == 0;
+        boolean xLine = hasLine(x);
+        boolean oLine = hasLine(o);
+        if (xLine || oLine) {
+            // Only the player who just moved can have a line
+            boolean moverLine = xToMove ? oLine : xLine;
+            boolean toMoveLine = xToMove ? xLine : oLine;
+            return moverLine && !toMoveLine ? CODE_LOSS : UNSET;
+        }
+        if (stones == cells) {
+            return CODE_DRAW;
+        }
+
+        int digit = xToMove ? 1 : 2;
+        int best = CODE_LOSS;
+        for (int bits = ~(x | o) & ((1 << cells) - 1); bits != 0; bits &= bits - 1) {
+            int child = code(table, index + digit * powers[Integer.numberOfTrailingZeros(bits)]);
+            if (child == CODE_LOSS) {
+                return CODE_WIN;
+            }
+            if (child == CODE_DRAW) {
+                best = CODE_DRAW;
+            }
+        }
+        return best;
+    }
+
+    public boolean isSolved() {
+        return values != null;
+    }
+
+    // WIN, DRAW or LOSS for the side to move, with perfect play
+    public int getValue(Board state) {
+        return value(code(table(state), index(state)));
+    }
+
+    // A move that keeps the best value for the side to move; an immediate win
+    // is preferred, so won games are finished rather than drawn out
+    public Position findBestMove(Board state) {
+        long[] table = table(state);
+        if (state.isTerminal()) {
+            throw new IllegalArgumentException("No moves in a finished game");
+        }
+        int index = index(state);
+        int digit = state.getCurrentPlayer() == Player.X ? 1 : 2;
+        int own = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (state.getPlayerAt(cell / m, cell % m) == state.getCurrentPlayer()) {
+                own |= 1 << cell;
+            }
+        }
+
+        int bestCell = -1;
+        int bestValue = Integer.MIN_VALUE;
+        for (int cell = 0; cell < cells; cell++) {
+            if (!state.isEmpty(cell / m, cell % m)) {
+                continue;
+            }
+            if (hasLine(own | (1 << cell))) {
+                return new Position(cell / m, cell % m);
+            }
+            int value = -value(code(table, index + digit * powers[cell]));
+            if (value > bestValue) {
+                bestValue = value;
+                bestCell = cell;
+            }
+        }
+        return new Position(bestCell / m, bestCell % m);
+    }
+
+    // Bytes held by the value table
+    public long getTableBytes() {
+        return values == null ? 0 : values.length * 8L;
+    }
+
+    private long[] table(Board state) {
+        if (values == null) {
+            throw new IllegalStateException("Call solve() before querying the table");
+        }
+        if (state.getSize() != m || state.getK() != k) {
+            throw new IllegalArgumentException("Table is for " + m + "x" + m + " k=" + k + ", not "
+                    + state.getSize() + "x" + state.getSize() + " k=" + state.getK());
+        }
+        return values;
+    }
+
+    private int index(Board state) {
+        int index = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            Player player = state.getPlayerAt(cell / m, cell % m);
+            if (player != null) {
+                index += (player == Player.X ? 1 : 2) * powers[cell];
+            }
+        }
+        return index;
+    }
+
+    private static int code(long[] table, int index) {
+        return (int) (table[index >>> 5] >>> ((index & 31) << 1)) & 3;
+    }
+
+    private static int value(int code) {
+        switch (code) {
+            case CODE_WIN: return WIN;
+            case CODE_DRAW: return DRAW;
+            case CODE_LOSS: return LOSS;
+            default: throw new IllegalArgumentException("Position cannot arise in a game");
+        }
+    }
+
+    private int rank(int mask) {
+        return lowRanks[mask & 0xFF] + highRanks[(mask >>> 8) & 0xFF];
+    }
+
+    private boolean hasLine(int mask) {
+        for (int line : lineMasks) {
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // All n-bit masks with exactly r bits set, in increasing order
+    private static List<Integer> combinations(int n, int r) {
+        List<Integer> masks = new ArrayList<>();
+        if (r > n) {
+            return masks;
+        }
+        if (r == 0) {
+            masks.add(0);
+            return masks;
+        }
+        for (int mask = (1 << r) - 1; mask < (1 << n); mask = nextCombination(mask)) {
+            masks.add(mask);
+        }
+        return masks;
+    }
+
+    // Gosper's hack: the next larger mask with the same number of bits set
+    private static int nextCombination(int mask) {
+        int low = mask & -mask;
+        int ripple = mask + low;
+        return (((ripple ^ mask) >>> 2) / low) | ripple;
+    }
+}
@@ -0,0 +1,155 @@
+package algorithms;
+
+import java.util.Arrays;
+
+// What one solver call did: an immutable snapshot built when the call
+// returns. Searches count into their own Counters, one per thread with no
+// sharing, and merge them once at the end, so statistics cost a few
+// increments per node and are always on.
+public final class SearchStats {
+    public static final SearchStats EMPTY = new SearchStats(new Counters(0), 0);
+
+    private final long nodes;
+    private final long elapsedNanos;
+    private final long[] cutoffsPerPly;
+    private final long cutoffs;
+    private final long firstMoveCutoffs;
+    private final int maxDepth;
+    private final long tableProbes;
+    private final long tableHits;
+    private final long evaluatorCalls;
+
+    SearchStats(Counters counters, long elapsedNanos) {
+        this.nodes = counters.nodes;
+        this.elapsedNanos = elapsedNanos;
+        int plies = counters.cutoffs.length;
+        while (plies > 0 && counters.cutoffs[plies - 1] == 0) {
+            plies--;
+        }
+        this.cutoffsPerPly = Arrays.copyOf(counters.cutoffs, plies);
+        this.cutoffs = Arrays.stream(counters.cutoffs).sum();
+        this.firstMoveCutoffs = counters.firstMoveCutoffs;
+        this.maxDepth = counters.maxPly;
+        this.tableProbes = counters.tableProbes;
+        this.tableHits = counters.tableHits;
+        this.evaluatorCalls = counters.evaluatorCalls;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    // Beta cutoffs at each ply from the root (ply 0), up to the deepest ply
+    // that had one
+    public long[] getCutoffsPerPly() {
+        return cutoffsPerPly.clone();
+    }
+
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    // Share of cutoffs caused by the first move searched; close to 1 means
+    // the move ordering is doing its job
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    // The b with b^d = nodes, d being the deepest ply reached
+    public double getEffectiveBranchingFactor() {
+        return maxDepth == 0 ? 0 : Math.pow(nodes, 1.0 / maxDepth);
+    }
+
+    // Deepest ply from the root that was visited
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getTableProbes() {
+        return tableProbes;
+    }
+
+    // Probes that found an entry for the position, usable or not
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    public double getTableHitRate() {
+        return tableProbes == 0 ? 0 : (double) tableHits / tableProbes;
+    }
+
+    public long getEvaluatorCalls() {
+        return evaluatorCalls;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("nodes=%d time=%dms nps=%.0f depth=%d ebf=%.2f cutoffs=%d first-move=%.1f%% "
+                        + "tt-hits=%d/%d evals=%d",
+                nodes, getElapsedMillis(), getNodesPerSecond(), maxDepth, getEffectiveBranchingFactor(),
+                cutoffs, 100 * getFirstMoveCutoffRate(), tableHits, tableProbes, evaluatorCalls);
+    }
+
+    // Mutable counters owned by a single search thread
+    static final class Counters {
+        long nodes;
+        long[] cutoffs;
+        long firstMoveCutoffs;
+        int maxPly;
+        long tableProbes;
+        long tableHits;
+        long evaluatorCalls;
+
+        Counters(int plies) {
+            this.cutoffs = new long[plies];
+        }
+
+        void node(int ply) {
+            nodes++;
+            if (ply > maxPly) {
+                maxPly = ply;
+            }
+        }
+
+        void cutoff(int ply, int moveIndex) {
+            cutoffs[ply]++;
+            if (moveIndex == 0) {
+                firstMoveCutoffs++;
+            }
+        }
+
+        void probe(boolean hit) {
+            tableProbes++;
+            if (hit) {
+                tableHits++;
+            }
+        }
+
+        void add(Counters other) {
+            nodes += other.nodes;
+            if (other.cutoffs.length > cutoffs.length) {
+                cutoffs = Arrays.copyOf(cutoffs, other.cutoffs.length);
+            }
+            for (int ply = 0; ply < other.cutoffs.length; ply++) {
+                cutoffs[ply] += other.cutoffs[ply];
+            }
+            firstMoveCutoffs += other.firstMoveCutoffs;
+            maxPly = Math.max(maxPly, other.maxPly);
+            tableProbes += other.tableProbes;
+            tableHits += other.tableHits;
+            evaluatorCalls += other.evaluatorCalls;
+        }
+    }
+}
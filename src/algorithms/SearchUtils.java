@@ -0,0 +1,86 @@
+package algorithms;
+
+import model.SearchBoard;
+import monitoring.SearchTrace;
+import strategies.MoveOrderingStrategy;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+final class SearchUtils {
+    private SearchUtils() {
+    }
+
+    static int boundType(int value, int alpha, int beta) {
+        if (value <= alpha) return TranspositionTable.UPPER_BOUND;
+        if (value >= beta) return TranspositionTable.LOWER_BOUND;
+        return TranspositionTable.EXACT;
+    }
+
+    // Moves the table's best move to the front, keeping the rest in order
+    static void moveToFront(int[] moves, int count, int move) {
+        if (move == TranspositionTable.NO_MOVE) return;
+
+        for (int i = 1; i < count; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    // One move buffer per ply, sized to the empty cells left at that ply, so
+    // the search itself never allocates move lists
+    static int[][] moveBuffers(SearchBoard board, int plies) {
+        int empty = board.getSize() * board.getSize() - board.getStoneCount();
+        int[][] buffers = new int[Math.min(plies, empty) + 1][];
+        for (int ply = 0; ply < buffers.length; ply++) {
+            buffers[ply] = new int[Math.max(empty - ply, 0)];
+        }
+        return buffers;
+    }
+
+    // Generates and orders the root moves, dropping any move whose child is a
+    // mirror image of an earlier child since it must have the same value
+    static int rootMoves(SearchBoard board, int[] moves, MoveOrderingStrategy moveOrdering) {
+        int count = board.generateMoves(moves);
+        moveOrdering.orderMoves(board, moves, count, 0);
+
+        Set<Long> searched = new HashSet<>();
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            board.play(moves[i]);
+            boolean isNew = searched.add(board.getCanonicalKey());
+            board.undo();
+            if (isNew) {
+                moves[unique++] = moves[i];
+            }
+        }
+        return unique;
+    }
+
+    static void endTrace(SearchTrace trace, int depthReached, SearchStats stats) {
+        trace.end(depthReached, stats.getNodes(), stats.getTableProbes(), stats.getTableHits());
+    }
+
+    static int[] invokeAll(ForkJoinPool pool, List<Callable<Integer>> tasks) {
+        List<Future<Integer>> futures = pool.invokeAll(tasks);
+        int[] results = new int[futures.size()];
+        try {
+            for (int i = 0; i < results.length; i++) {
+                results[i] = futures.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during parallel search", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Parallel search task failed", e.getCause());
+        }
+        return results;
+    }
+}
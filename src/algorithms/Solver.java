@@ -0,0 +1,11 @@
+package algorithms;
+
+import model.GameState;
+import model.Position;
+
+// A move-finding search. Statistics describe the most recent call.
+public interface Solver {
+    Position findBestMove(GameState state);
+
+    SearchStats getStats();
+}
@@ -0,0 +1,349 @@
+package algorithms;
+
+import model.GameState;
+import model.LineWindows;
+import model.Player;
+import model.Position;
+import model.SearchBoard;
+import model.WindowCounts;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Searches forcing moves only, for the side to move. A "four" is a window
+// holding k - 1 of the attacker's stones and none of the defender's, so its
+// empty cell wins next move; a "three" is such a window one stone short.
+// Both are read straight off the board's window counts.
+//
+// VCF (victory by continuous fours) plays only moves that make a four, so
+// every defender reply is forced and a VCF line is a proof. VCT (victory by
+// continuous threats) also plays threes; the defender may then answer on any
+// cell of a window holding at least k - 2 attacker stones, or with a four of
+// its own. As in threat-space search generally, a defence elsewhere is not
+// tried, so a VCT line is very strong but not a full proof.
+public class ThreatSpaceSolver {
+    private static final int DEFAULT_VCF_DEPTH = 12;
+    private static final int DEFAULT_VCT_DEPTH = 3;
+    private static final long DEFAULT_MAX_NODES = 20_000;
+
+    private final int maxVcfDepth;
+    private final int maxVctDepth;
+    private final long maxNodes;
+    private SearchStats stats = SearchStats.EMPTY;
+    private List<Position> winningLine = new ArrayList<>();
+    private boolean vcf;
+
+    public ThreatSpaceSolver() {
+        this(DEFAULT_VCF_DEPTH, DEFAULT_VCT_DEPTH, DEFAULT_MAX_NODES);
+    }
+
+    // Depths count attacker moves; a VCT depth of 0 searches fours only
+    public ThreatSpaceSolver(int maxVcfDepth, int maxVctDepth, long maxNodes) {
+        if (maxVcfDepth < 0 || maxVctDepth < 0 || maxNodes <= 0) {
+            throw new IllegalArgumentException("Invalid threat search limits: vcf=" + maxVcfDepth
+                    + ", vct=" + maxVctDepth + ", nodes=" + maxNodes);
+        }
+        this.maxVcfDepth = maxVcfDepth;
+        this.maxVctDepth = maxVctDepth;
+        this.maxNodes = maxNodes;
+    }
+
+    // First move of a forced win for the side to move, or null if none was
+    // found within the limits. VCF is tried before VCT.
+    public Position findWinningMove(GameState state) {
+        long start = System.nanoTime();
+        winningLine = new ArrayList<>();
+        vcf = false;
+        stats = SearchStats.EMPTY;
+        if (state.isTerminal()) {
+            return null;
+        }
+
+        Search search = new Search(state);
+        boolean found = search.vcf(0, maxVcfDepth);
+        vcf = found;
+        if (!found && maxVctDepth > 0 && !search.aborted) {
+            found = search.vct(0, maxVctDepth, true);
+        }
+        stats = new SearchStats(search.counters, System.nanoTime() - start);
+        if (!found || search.aborted) {
+            vcf = false;
+            return null;
+        }
+
+        int m = state.getSize();
+        for (int i = 0; i < search.lineLength[0]; i++) {
+            int cell = search.line[0][i];
+            winningLine.add(new Position(cell / m, cell % m));
+        }
+        return winningLine.get(0);
+    }
+
+    // Attacker and defender moves of the last win found, alternating from
+    // the move findWinningMove returned; a defender move stands for any one
+    // of its refuted alternatives
+    public List<Position> getWinningLine() {
+        return new ArrayList<>(winningLine);
+    }
+
+    // Whether the last win found used fours only, making it a proof
+    public boolean isVcf() {
+        return vcf;
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    public int getNodesEvaluated() {
+        return (int) Math.min(stats.getNodes(), Integer.MAX_VALUE);
+    }
+
+    private class Search {
+        final SearchBoard board;
+        final WindowCounts counts;
+        final LineWindows windows;
+        final int m;
+        final int k;
+        // Cells already collected in the current scan, by stamp
+        final int[] marks;
+        int stamp;
+        final int[][] buffers;
+        final int[][] line;
+        final int[] lineLength;
+        final SearchStats.Counters counters;
+        boolean aborted;
+
+        Search(GameState state) {
+            this.board = new SearchBoard(state);
+            this.counts = board.getWindowCounts();
+            this.windows = counts.getWindows();
+            this.m = state.getSize();
+            this.k = state.getK();
+            int cells = m * m;
+            this.marks = new int[cells];
+            int plies = 2 * (maxVcfDepth + maxVctDepth) + 4;
+            this.buffers = new int[plies][cells];
+            this.line = new int[plies][plies];
+            this.lineLength = new int[plies];
+            this.counters = new SearchStats.Counters(0);
+        }
+
+        // Attacker to move: wins by fours alone within depth attacker moves
+        boolean vcf(int ply, int depth) {
+            if (!visit(ply)) {
+                return false;
+            }
+            Player attacker = board.getCurrentPlayer();
+            Player defender = attacker.getOpponent();
+            int[] moves = buffers[ply];
+
+            int wins = collect(attacker, k - 1, k - 1, moves);
+            if (wins > 0) {
+                return record(ply, moves[0]);
+            }
+            if (depth == 0) {
+                return false;
+            }
+
+            int count;
+            int threats = collect(defender, k - 1, k - 1, moves);
+            if (threats > 1) {
+                return false;
+            } else if (threats == 1) {
+                // The block is forced; it only keeps the initiative if it
+                // makes a four at the same time
+                int block = moves[0];
+                count = collect(attacker, k - 2, k - 2, moves);
+                if (!contains(moves, count, block)) {
+                    return false;
+                }
+                moves[0] = block;
+                count = 1;
+            } else {
+                count = collect(attacker, k - 2, k - 2, moves);
+            }
+
+            int[] replies = buffers[ply + 1];
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                board.play(move);
+                boolean won = false;
+                if (collect(defender, k - 1, k - 1, replies) == 0) {
+                    int open = collect(attacker, k - 1, k - 1, replies);
+                    if (open > 1) {
+                        // Two winning cells cannot both be blocked
+                        won = true;
+                        lineLength[ply + 1] = 0;
+                    } else if (open == 1) {
+                        int block = replies[0];
+                        board.play(block);
+                        won = !board.isTerminal() && vcf(ply + 2, depth - 1);
+                        board.undo();
+                        if (won) {
+                            prepend(ply + 1, block, ply + 2);
+                        }
+                    }
+                }
+                board.undo();
+                if (won) {
+                    return prepend(ply, move, ply + 1);
+                }
+                if (aborted) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        // Attacker to move: wins by fours and threes within depth attacker
+        // moves. A VCF is tried first unless the caller already failed one
+        // here, as findWinningMove does at the root.
+        boolean vct(int ply, int depth, boolean vcfSearched) {
+            if (!vcfSearched && vcf(ply, maxVcfDepth)) {
+                return true;
+            }
+            if (depth == 0 || aborted || !visit(ply)) {
+                return false;
+            }
+            Player attacker = board.getCurrentPlayer();
+            Player defender = attacker.getOpponent();
+            int[] moves = buffers[ply];
+
+            int count;
+            int threats = collect(defender, k - 1, k - 1, moves);
+            if (threats > 1) {
+                return false;
+            } else if (threats == 1) {
+                count = 1;
+            } else {
+                // Threes need at least one stone already in the window
+                count = collect(attacker, Math.max(k - 3, 1), k - 2, moves);
+            }
+
+            int[] replies = buffers[ply + 1];
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                board.play(move);
+                boolean won = false;
+                if (collect(defender, k - 1, k - 1, replies) == 0) {
+                    won = refutesAll(ply, depth, attacker, defender, replies);
+                }
+                board.undo();
+                if (won) {
+                    return prepend(ply, move, ply + 1);
+                }
+                if (aborted) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        // Defender to move after a threat: every reply that touches the
+        // threat, or makes a four, loses to a further VCT
+        private boolean refutesAll(int ply, int depth, Player attacker, Player defender, int[] replies) {
+            newScan();
+            int count = scan(attacker, k - 2, k - 1, replies, 0);
+            if (count == 0) {
+                return false;
+            }
+            count = scan(defender, k - 2, k - 2, replies, count);
+
+            for (int i = 0; i < count; i++) {
+                int reply = replies[i];
+                board.play(reply);
+                boolean lost = !board.isTerminal() && vct(ply + 2, depth - 1, false);
+                board.undo();
+                if (!lost) {
+                    return false;
+                }
+                // Deeper searches never write this ply's line, so the first
+                // refutation found is the one kept
+                if (i == 0) {
+                    prepend(ply + 1, reply, ply + 2);
+                }
+            }
+            return true;
+        }
+
+        private boolean visit(int ply) {
+            if (aborted) {
+                return false;
+            }
+            counters.node(ply);
+            if (counters.nodes > maxNodes) {
+                aborted = true;
+                return false;
+            }
+            return true;
+        }
+
+        // Writes the distinct empty cells of windows holding between min and
+        // max stones of player and none of the opponent's
+        private int collect(Player player, int min, int max, int[] out) {
+            newScan();
+            return scan(player, min, max, out, 0);
+        }
+
+        private void newScan() {
+            if (++stamp == 0) {
+                Arrays.fill(marks, 0);
+                stamp = 1;
+            }
+        }
+
+        // As collect, appending after count and skipping cells already
+        // collected since the last newScan
+        private int scan(Player player, int min, int max, int[] out, int count) {
+            // The open-window histogram says whether there is anything to find
+            int open = 0;
+            for (int n = min; n <= max; n++) {
+                open += counts.getOpenWindows(player, n);
+            }
+            if (open == 0) {
+                return count;
+            }
+            Player opponent = player.getOpponent();
+            int windowCount = windows.getWindowCount();
+            for (int w = 0; w < windowCount; w++) {
+                int own = counts.getCount(w, player);
+                if (own < min || own > max || counts.getCount(w, opponent) != 0) {
+                    continue;
+                }
+                for (int i = 0; i < k; i++) {
+                    int cell = windows.getCell(w, i);
+                    if (marks[cell] != stamp && board.isEmpty(cell / m, cell % m)) {
+                        marks[cell] = stamp;
+                        out[count++] = cell;
+                    }
+                }
+            }
+            return count;
+        }
+
+        private boolean contains(int[] moves, int count, int move) {
+            for (int i = 0; i < count; i++) {
+                if (moves[i] == move) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean record(int ply, int move) {
+            line[ply][0] = move;
+            lineLength[ply] = 1;
+            return true;
+        }
+
+        // The line from ply is move followed by the line found from childPly
+        private boolean prepend(int ply, int move, int childPly) {
+            int childLength = lineLength[childPly];
+            line[ply][0] = move;
+            System.arraycopy(line[childPly], 0, line[ply], 1, childLength);
+            lineLength[ply] = childLength + 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package algorithms;
+
+import java.util.Arrays;
+
+// Fixed-size hash table of search results keyed by Zobrist hash, safe to
+// share between search threads without locks. Each entry is packed into one
+// data word, and the key slot holds key ^ data: a reader that sees a key
+// from one write and data from another fails the XOR check and treats the
+// slot as empty instead of trusting a torn entry.
+//
+// Data layout (low to high bits): value 32, best move + 1 16, depth 8,
+// flag 2, generation 6.
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    public static final int NO_MOVE = -1;
+    public static final long NO_ENTRY = 0L;
+
+    private static final int DEFAULT_CAPACITY = 1 << 18;
+    private static final int MAX_DEPTH = 0xFF;
+    private static final int GENERATIONS = 64;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private volatile int generation;
+
+    public TranspositionTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TranspositionTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.keys = new long[size];
+        this.data = new long[size];
+        this.mask = size - 1;
+        this.generation = 1;
+    }
+
+    // Returns the packed entry for key, or NO_ENTRY if it is not stored
+    public long probe(long key) {
+        int slot = slot(key);
+        long entry = data[slot];
+        if (entry != NO_ENTRY && (keys[slot] ^ entry) == key && generation(entry) == generation) {
+            return entry;
+        }
+        return NO_ENTRY;
+    }
+
+    public static int value(long entry) {
+        return (int) entry;
+    }
+
+    public static int bestMove(long entry) {
+        return (int) ((entry >>> 32) & 0xFFFF) - 1;
+    }
+
+    // Depths beyond 255 are stored as 255, which only makes the entry less
+    // often usable, never wrong
+    public static int depth(long entry) {
+        return (int) ((entry >>> 48) & MAX_DEPTH);
+    }
+
+    public static int flag(long entry) {
+        return (int) ((entry >>> 56) & 0x3);
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> 58);
+    }
+
+    // Keeps a deeper result for a different position from the same search
+    public void store(long key, int depth, int value, int flag, int bestMove) {
+        int slot = slot(key);
+        long existing = data[slot];
+        int currentGeneration = generation;
+        if (existing != NO_ENTRY && generation(existing) == currentGeneration
+                && (keys[slot] ^ existing) != key && depth(existing) > depth) {
+            return;
+        }
+
+        long entry = (value & 0xFFFFFFFFL)
+                | ((long) ((bestMove + 1) & 0xFFFF) << 32)
+                | ((long) Math.min(depth, MAX_DEPTH) << 48)
+                | ((long) flag << 56)
+                | ((long) currentGeneration << 58);
+        data[slot] = entry;
+        keys[slot] = key ^ entry;
+    }
+
+    // Invalidates every entry by moving to the next generation; the arrays
+    // are only wiped when the generation counter wraps. Not safe to call
+    // while a search is using the table.
+    public void clear() {
+        int next = generation + 1;
+        if (next == GENERATIONS) {
+            Arrays.fill(keys, 0L);
+            Arrays.fill(data, NO_ENTRY);
+            next = 1;
+        }
+        generation = next;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    private int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,247 @@
+package arena;
+
+import algorithms.Solver;
+import engine.GameEngine;
+import model.GameState;
+import model.Player;
+import model.Position;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Plays solvers against each other: every pairing of the contestants plays
+// the same number of games on one board size. Each game starts from a few
+// random moves; games come in pairs on the same opening with colours
+// swapped, so neither side gains from a lucky opening or from moving first.
+// Games run on a fixed pool, one thread per core by default, each thread
+// taking the next game number until all are played; the opening depends
+// only on the seed and the game number, so a run can be repeated.
+public class Arena {
+    private static final int MAX_OPENING_ATTEMPTS = 1000;
+
+    private final int m;
+    private final int k;
+    private int openingPlies = 2;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = 1;
+    private ResultWriter resultWriter;
+
+    public Arena(int m, int k) {
+        if (m < 1 || k < 1) {
+            throw new IllegalArgumentException("Invalid game: " + m + "x" + m + " k=" + k);
+        }
+        this.m = m;
+        this.k = k;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> specs = new ArrayList<>();
+        int m = 3;
+        int k = 3;
+        int games = 1000;
+        Integer plies = null;
+        Integer threads = null;
+        Long seed = null;
+        String out = null;
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                specs.add(args[i]);
+            } else if (i + 1 == args.length) {
+                usage();
+            } else {
+                String value = args[++i];
+                switch (args[i - 1]) {
+                    case "--size": m = Integer.parseInt(value); break;
+                    case "--k": k = Integer.parseInt(value); break;
+                    case "--games": games = Integer.parseInt(value); break;
+                    case "--openings": plies = Integer.parseInt(value); break;
+                    case "--threads": threads = Integer.parseInt(value); break;
+                    case "--seed": seed = Long.parseLong(value); break;
+                    case "--out": out = value; break;
+                    default: usage();
+                }
+            }
+        }
+        if (specs.size() < 2) {
+            usage();
+        }
+        List<Contestant> contestants = new ArrayList<>();
+        for (String spec : specs) {
+            contestants.add(Contestant.parse(spec));
+        }
+
+        Arena arena = new Arena(m, k);
+        if (plies != null) {
+            arena.setOpeningPlies(plies);
+        }
+        if (threads != null) {
+            arena.setThreads(threads);
+        }
+        if (seed != null) {
+            arena.setSeed(seed);
+        }
+        try (ResultWriter writer = out == null ? null
+                : out.equals("-") ? ResultWriter.csv(new OutputStreamWriter(System.out))
+                : ResultWriter.open(Paths.get(out))) {
+            arena.setResultWriter(writer);
+            ArenaReport report = arena.run(contestants, games);
+            if (writer != null) {
+                writer.flush();
+            }
+            System.err.print(report);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java arena.Arena [--size m] [--k k] [--games perPairing] [--openings plies]"
+                + " [--threads n] [--seed s] [--out file.csv|file.jsonl|-] spec spec...");
+        System.err.println("  spec: solver[:depth][:ordering], solver minimax|alphabeta|depth|pvs,"
+                + " ordering default|center|heuristic|delta|killer");
+        System.exit(1);
+    }
+
+    // Random moves before the solvers take over; 0 starts every game from
+    // the empty board
+    public void setOpeningPlies(int plies) {
+        if (plies < 0 || plies >= m * m) {
+            throw new IllegalArgumentException("Invalid opening length: " + plies);
+        }
+        this.openingPlies = plies;
+    }
+
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    // Where each game is written as it finishes; null writes nothing
+    public void setResultWriter(ResultWriter resultWriter) {
+        this.resultWriter = resultWriter;
+    }
+
+    // Plays gamesPerPairing games for every pair of contestants, rounded up
+    // to an even number so both sides play each opening as X
+    public ArenaReport run(List<Contestant> contestants, int gamesPerPairing) throws InterruptedException {
+        if (contestants.size() < 2) {
+            throw new IllegalArgumentException("An arena needs at least two contestants");
+        }
+        if (gamesPerPairing < 1) {
+            throw new IllegalArgumentException("Games per pairing must be positive: " + gamesPerPairing);
+        }
+        List<Contestant[]> pairings = new ArrayList<>();
+        for (int i = 0; i < contestants.size(); i++) {
+            for (int j = i + 1; j < contestants.size(); j++) {
+                pairings.add(new Contestant[] {contestants.get(i), contestants.get(j)});
+            }
+        }
+        int perPairing = gamesPerPairing + (gamesPerPairing & 1);
+        int total = Math.multiplyExact(pairings.size(), perPairing);
+        GameResult[] results = new GameResult[total];
+        AtomicInteger nextGame = new AtomicInteger();
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, total));
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < Math.min(threads, total); t++) {
+                workers.add(pool.submit(() -> {
+                    for (int game; (game = nextGame.getAndIncrement()) < total; ) {
+                        Contestant[] pairing = pairings.get(game / perPairing);
+                        // Odd games replay the previous game's opening with colours swapped
+                        boolean swap = (game & 1) == 1;
+                        results[game] = play(game, swap ? pairing[1] : pairing[0], swap ? pairing[0] : pairing[1]);
+                        if (resultWriter != null) {
+                            resultWriter.write(results[game]);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    // Stops the remaining games too
+                    nextGame.set(total);
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new ArenaReport(contestants, List.of(results), System.nanoTime() - start);
+    }
+
+    GameResult play(int game, Contestant x, Contestant o) {
+        List<Position> opening = opening(game);
+        GameState state = GameEngine.initialState(m, k);
+        for (Position move : opening) {
+            state = state.makeMove(move);
+        }
+
+        long[] xNanos = new long[m * m];
+        long[] oNanos = new long[m * m];
+        int xMoves = 0;
+        int oMoves = 0;
+        long xNodes = 0;
+        long oNodes = 0;
+        while (!state.isTerminal()) {
+            boolean xToMove = state.getCurrentPlayer() == Player.X;
+            Solver solver = (xToMove ? x : o).solver();
+            long moveStart = System.nanoTime();
+            Position move = solver.findBestMove(state);
+            long nanos = System.nanoTime() - moveStart;
+            if (xToMove) {
+                xNanos[xMoves++] = nanos;
+                xNodes += solver.getStats().getNodes();
+            } else {
+                oNanos[oMoves++] = nanos;
+                oNodes += solver.getStats().getNodes();
+            }
+            state = state.makeMove(move);
+        }
+        return new GameResult(game, x, o, state.getWinner(), opening, state.getStoneCount(),
+                Arrays.copyOf(xNanos, xMoves), Arrays.copyOf(oNanos, oMoves), xNodes, oNodes);
+    }
+
+    // The random opening of a game pair. Openings that already end the game
+    // are drawn again.
+    List<Position> opening(int game) {
+        Random random = new Random(seed ^ (game >>> 1) * 0x9E3779B97F4A7C15L);
+        for (int attempt = 0; attempt < MAX_OPENING_ATTEMPTS; attempt++) {
+            GameState state = GameEngine.initialState(m, k);
+            List<Position> opening = new ArrayList<>(openingPlies);
+            for (int ply = 0; ply < openingPlies && !state.isTerminal(); ply++) {
+                List<Position> moves = state.getLegalMoves();
+                Position move = moves.get(random.nextInt(moves.size()));
+                opening.add(move);
+                state = state.makeMove(move);
+            }
+            if (!state.isTerminal()) {
+                return opening;
+            }
+        }
+        throw new IllegalStateException("No opening of " + openingPlies + " plies found that leaves the game open");
+    }
+}
@@ -0,0 +1,235 @@
+package arena;
+
+import model.Player;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Summary of an arena run: a score table with Elo ratings, move latencies
+// and nodes per contestant, and the result of each pairing with an Elo
+// difference and its 95% error margin.
+public final class ArenaReport {
+    // MM iterations for the ratings; they converge long before this
+    private static final int RATING_ITERATIONS = 1000;
+
+    private final List<Contestant> contestants;
+    private final List<GameResult> results;
+    private final long elapsedNanos;
+    private final double[] ratings;
+
+    ArenaReport(List<Contestant> contestants, List<GameResult> results, long elapsedNanos) {
+        this.contestants = List.copyOf(contestants);
+        this.results = List.copyOf(results);
+        this.elapsedNanos = elapsedNanos;
+        this.ratings = fitRatings();
+    }
+
+    public List<GameResult> getResults() {
+        return results;
+    }
+
+    public int getGames() {
+        return results.size();
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : results.size() * 1e9 / elapsedNanos;
+    }
+
+    // Elo relative to the field, which averages 0
+    public double getRating(Contestant contestant) {
+        return ratings[index(contestant)];
+    }
+
+    // Points out of the games played: 1 a win, 0.5 a draw
+    public double getScore(Contestant contestant) {
+        double score = 0;
+        for (GameResult result : results) {
+            for (Player side : Player.values()) {
+                if (result.get(side) == contestant) {
+                    score += result.getScore(side);
+                }
+            }
+        }
+        return score;
+    }
+
+    public int getGames(Contestant contestant) {
+        int games = 0;
+        for (GameResult result : results) {
+            if (result.getX() == contestant || result.getO() == contestant) {
+                games++;
+            }
+        }
+        return games;
+    }
+
+    // Nearest-rank percentile of the contestant's move times
+    public double getLatencyMillis(Contestant contestant, double fraction) {
+        long[] nanos = moveNanos(contestant);
+        if (nanos.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(fraction * nanos.length);
+        return nanos[Math.max(rank, 1) - 1] / 1e6;
+    }
+
+    public double getNodesPerMove(Contestant contestant) {
+        long nodes = 0;
+        long moves = 0;
+        for (GameResult result : results) {
+            for (Player side : Player.values()) {
+                if (result.get(side) == contestant) {
+                    nodes += result.getNodes(side);
+                    moves += result.getMoveNanos(side).length;
+                }
+            }
+        }
+        return moves == 0 ? 0 : (double) nodes / moves;
+    }
+
+    private long[] moveNanos(Contestant contestant) {
+        List<long[]> parts = new ArrayList<>();
+        int total = 0;
+        for (GameResult result : results) {
+            for (Player side : Player.values()) {
+                if (result.get(side) == contestant) {
+                    long[] nanos = result.getMoveNanos(side);
+                    parts.add(nanos);
+                    total += nanos.length;
+                }
+            }
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, all, offset, part.length);
+            offset += part.length;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    // Bradley-Terry ratings fitted by minorization-maximization, a draw
+    // counting half a win to each side. Every pairing that played starts
+    // with one extra drawn game, so a contestant that won every game still
+    // gets a finite rating.
+    private double[] fitRatings() {
+        int n = contestants.size();
+        double[][] games = new double[n][n];
+        double[] wins = new double[n];
+        for (GameResult result : results) {
+            int x = index(result.getX());
+            int o = index(result.getO());
+            if (x == o) {
+                continue;
+            }
+            if (games[x][o] == 0) {
+                games[x][o] = games[o][x] = 1;
+                wins[x] += 0.5;
+                wins[o] += 0.5;
+            }
+            games[x][o]++;
+            games[o][x]++;
+            wins[x] += result.getScore(Player.X);
+            wins[o] += result.getScore(Player.O);
+        }
+
+        double[] strength = new double[n];
+        Arrays.fill(strength, 1);
+        for (int iteration = 0; iteration < RATING_ITERATIONS; iteration++) {
+            double[] next = new double[n];
+            double logSum = 0;
+            for (int i = 0; i < n; i++) {
+                double denominator = 0;
+                for (int j = 0; j < n; j++) {
+                    if (games[i][j] > 0) {
+                        denominator += games[i][j] / (strength[i] + strength[j]);
+                    }
+                }
+                next[i] = denominator == 0 ? 1 : wins[i] / denominator;
+                logSum += Math.log(next[i]);
+            }
+            // Scaled to a geometric mean of 1, so ratings average 0
+            double scale = Math.exp(logSum / n);
+            for (int i = 0; i < n; i++) {
+                strength[i] = next[i] / scale;
+            }
+        }
+
+        double[] elo = new double[n];
+        for (int i = 0; i < n; i++) {
+            elo[i] = 400 * Math.log10(strength[i]);
+        }
+        return elo;
+    }
+
+    // Elo difference for a score fraction, kept finite at 0 and 1
+    static double eloDifference(double score, int games) {
+        double clamped = Math.min(Math.max(score, 0.5 / games), 1 - 0.5 / games);
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+
+    private int index(Contestant contestant) {
+        int index = contestants.indexOf(contestant);
+        if (index < 0) {
+            throw new IllegalArgumentException("Not in this arena: " + contestant);
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(String.format("%d games in %.1fs (%.0f games/s)%n",
+                results.size(), elapsedNanos / 1e9, getGamesPerSecond()));
+        out.append(String.format("%-24s %6s %7s %6s %9s %9s %9s %10s%n",
+                "contestant", "games", "score", "elo", "p50 ms", "p99 ms", "max ms", "nodes/move"));
+        for (Contestant contestant : contestants) {
+            int games = getGames(contestant);
+            out.append(String.format("%-24s %6d %6.1f%% %+6.0f %9.3f %9.3f %9.3f %10.0f%n",
+                    contestant.getName(), games, games == 0 ? 0 : 100 * getScore(contestant) / games,
+                    getRating(contestant), getLatencyMillis(contestant, 0.50),
+                    getLatencyMillis(contestant, 0.99), getLatencyMillis(contestant, 1.0),
+                    getNodesPerMove(contestant)));
+        }
+        for (int i = 0; i < contestants.size(); i++) {
+            for (int j = i + 1; j < contestants.size(); j++) {
+                appendPairing(out, contestants.get(i), contestants.get(j));
+            }
+        }
+        return out.toString();
+    }
+
+    // Wins, draws and losses of a against b, and the Elo difference with a
+    // 95% margin from the spread of the per-game scores
+    private void appendPairing(StringBuilder out, Contestant a, Contestant b) {
+        int wins = 0;
+        int draws = 0;
+        int losses = 0;
+        for (GameResult result : results) {
+            Player side = result.getX() == a && result.getO() == b ? Player.X
+                    : result.getO() == a && result.getX() == b ? Player.O : null;
+            if (side == null) {
+                continue;
+            }
+            if (result.getWinner() == null) {
+                draws++;
+            } else if (result.getWinner() == side) {
+                wins++;
+            } else {
+                losses++;
+            }
+        }
+        int games = wins + draws + losses;
+        if (games == 0) {
+            return;
+        }
+        double score = (wins + 0.5 * draws) / games;
+        double variance = (wins + 0.25 * draws) / games - score * score;
+        double margin = 1.96 * Math.sqrt(variance / games);
+        double low = eloDifference(score - margin, games);
+        double high = eloDifference(score + margin, games);
+        out.append(String.format("%s vs %s: +%d =%d -%d, elo %+.0f +/- %.0f%n",
+                a.getName(), b.getName(), wins, draws, losses, eloDifference(score, games), (high - low) / 2));
+    }
+}
@@ -0,0 +1,96 @@
+package arena;
+
+import algorithms.AlphaBetaSolver;
+import algorithms.DepthLimitedSolver;
+import algorithms.MinimaxSolver;
+import algorithms.PrincipalVariationSolver;
+import algorithms.Solver;
+import engine.HeuristicEvaluator;
+import strategies.CenterFirstMoveOrdering;
+import strategies.DefaultMoveOrdering;
+import strategies.DeltaMoveOrdering;
+import strategies.HeuristicMoveOrdering;
+import strategies.KillerHistoryMoveOrdering;
+import strategies.MoveOrderingStrategy;
+import java.util.function.Supplier;
+
+// A named solver configuration. Solvers keep per-search state, so each
+// arena thread gets its own instance from the factory and reuses it for
+// every game it plays.
+public final class Contestant {
+    private static final int DEFAULT_DEPTH = 3;
+
+    private final String name;
+    private final ThreadLocal<Solver> solvers;
+
+    public Contestant(String name, Supplier<Solver> factory) {
+        this.name = name;
+        this.solvers = ThreadLocal.withInitial(factory);
+    }
+
+    // Builds a contestant from solver[:depth][:ordering], named by the spec:
+    // solver is minimax, alphabeta, depth (DepthLimitedSolver) or pvs;
+    // ordering is default, center, heuristic, delta or killer. Depth applies
+    // to depth and pvs, 3 if not given.
+    public static Contestant parse(String spec) {
+        String[] parts = spec.split(":");
+        int depth = DEFAULT_DEPTH;
+        String ordering = "default";
+        for (int i = 1; i < parts.length; i++) {
+            if (!parts[i].isEmpty() && parts[i].chars().allMatch(Character::isDigit)) {
+                depth = Integer.parseInt(parts[i]);
+            } else {
+                ordering = parts[i];
+            }
+        }
+        // Checked now, so a bad spec fails before any game starts
+        moveOrdering(ordering);
+        int maxDepth = depth;
+        String orderingName = ordering;
+        switch (parts[0]) {
+            case "minimax":
+                return new Contestant(spec, MinimaxSolver::new);
+            case "alphabeta":
+                return new Contestant(spec, () -> new AlphaBetaSolver(moveOrdering(orderingName)));
+            case "depth":
+                return new Contestant(spec, () -> new DepthLimitedSolver(maxDepth, new HeuristicEvaluator(true),
+                        moveOrdering(orderingName)));
+            case "pvs":
+                return new Contestant(spec, () -> new PrincipalVariationSolver(maxDepth,
+                        new HeuristicEvaluator(true), moveOrdering(orderingName)));
+            default:
+                throw new IllegalArgumentException("Unknown solver in " + spec);
+        }
+    }
+
+    private static MoveOrderingStrategy moveOrdering(String name) {
+        switch (name) {
+            case "default":
+                return new DefaultMoveOrdering();
+            case "center":
+                return new CenterFirstMoveOrdering();
+            case "heuristic":
+                return new HeuristicMoveOrdering();
+            case "delta":
+                return new DeltaMoveOrdering();
+            case "killer":
+                return new KillerHistoryMoveOrdering();
+            default:
+                throw new IllegalArgumentException("Unknown move ordering: " + name);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // This thread's solver
+    Solver solver() {
+        return solvers.get();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,93 @@
+package arena;
+
+import model.Player;
+import model.Position;
+import java.util.List;
+
+// One finished arena game. Move times and nodes cover only the moves the
+// solvers chose, not the random opening.
+public final class GameResult {
+    private final int game;
+    private final Contestant x;
+    private final Contestant o;
+    private final Player winner;
+    private final List<Position> opening;
+    private final int plies;
+    private final long[] xMoveNanos;
+    private final long[] oMoveNanos;
+    private final long xNodes;
+    private final long oNodes;
+
+    GameResult(int game, Contestant x, Contestant o, Player winner, List<Position> opening, int plies,
+               long[] xMoveNanos, long[] oMoveNanos, long xNodes, long oNodes) {
+        this.game = game;
+        this.x = x;
+        this.o = o;
+        this.winner = winner;
+        this.opening = List.copyOf(opening);
+        this.plies = plies;
+        this.xMoveNanos = xMoveNanos;
+        this.oMoveNanos = oMoveNanos;
+        this.xNodes = xNodes;
+        this.oNodes = oNodes;
+    }
+
+    public int getGame() {
+        return game;
+    }
+
+    public Contestant getX() {
+        return x;
+    }
+
+    public Contestant getO() {
+        return o;
+    }
+
+    public Contestant get(Player player) {
+        return player == Player.X ? x : o;
+    }
+
+    // Null for a draw
+    public Player getWinner() {
+        return winner;
+    }
+
+    // 1 for a win, 0.5 for a draw, 0 for a loss
+    public double getScore(Player player) {
+        return winner == null ? 0.5 : winner == player ? 1 : 0;
+    }
+
+    public List<Position> getOpening() {
+        return opening;
+    }
+
+    // Moves played in all, opening included
+    public int getPlies() {
+        return plies;
+    }
+
+    public long[] getMoveNanos(Player player) {
+        return (player == Player.X ? xMoveNanos : oMoveNanos).clone();
+    }
+
+    public long getTotalMoveNanos(Player player) {
+        long total = 0;
+        for (long nanos : player == Player.X ? xMoveNanos : oMoveNanos) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    public long getMaxMoveNanos(Player player) {
+        long max = 0;
+        for (long nanos : player == Player.X ? xMoveNanos : oMoveNanos) {
+            max = Math.max(max, nanos);
+        }
+        return max;
+    }
+
+    public long getNodes(Player player) {
+        return player == Player.X ? xNodes : oNodes;
+    }
+}
@@ -0,0 +1,112 @@
+package arena;
+
+import model.Player;
+import model.Position;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.StringJoiner;
+
+// Streams game results as they finish, one line each, in CSV or JSON
+// lines. Games finish out of order; the game column says which is which.
+// Writes are synchronized, so arena threads share one writer.
+public final class ResultWriter implements Closeable {
+    private static final String[] COLUMNS = {
+            "game", "x", "o", "winner", "plies", "opening",
+            "x_moves", "x_total_ms", "x_max_ms", "x_nodes",
+            "o_moves", "o_total_ms", "o_max_ms", "o_nodes"};
+
+    private final Writer out;
+    private final boolean json;
+
+    private ResultWriter(Writer out, boolean json) {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+        this.json = json;
+    }
+
+    public static ResultWriter csv(Writer out) {
+        ResultWriter writer = new ResultWriter(out, false);
+        writer.line(String.join(",", COLUMNS));
+        return writer;
+    }
+
+    public static ResultWriter jsonLines(Writer out) {
+        return new ResultWriter(out, true);
+    }
+
+    // JSON lines for a .jsonl or .json file, CSV otherwise
+    public static ResultWriter open(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        return name.endsWith(".jsonl") || name.endsWith(".json") ? jsonLines(out) : csv(out);
+    }
+
+    public synchronized void write(GameResult result) {
+        Object[] values = {
+                result.getGame(), result.getX().getName(), result.getO().getName(),
+                result.getWinner() == null ? "draw" : result.getWinner().name(),
+                result.getPlies(), opening(result),
+                result.getMoveNanos(Player.X).length, millis(result.getTotalMoveNanos(Player.X)),
+                millis(result.getMaxMoveNanos(Player.X)), result.getNodes(Player.X),
+                result.getMoveNanos(Player.O).length, millis(result.getTotalMoveNanos(Player.O)),
+                millis(result.getMaxMoveNanos(Player.O)), result.getNodes(Player.O)};
+        StringJoiner line = json ? new StringJoiner(",", "{", "}") : new StringJoiner(",");
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (json) {
+                line.add("\"" + COLUMNS[i] + "\":" + (value instanceof String ? jsonString((String) value) : value));
+            } else {
+                line.add(value instanceof String ? csvField((String) value) : value.toString());
+            }
+        }
+        line(line.toString());
+    }
+
+    private void line(String text) {
+        try {
+            out.write(text);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    // Opening moves as row:col, space separated
+    private static String opening(GameResult result) {
+        StringJoiner moves = new StringJoiner(" ");
+        for (Position move : result.getOpening()) {
+            moves.add(move.row + ":" + move.col);
+        }
+        return moves.toString();
+    }
+
+    // To the microsecond
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1e3) / 1e3;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String jsonString(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -1,90 +1,207 @@
 package engine;
 
-import model.GameState;
+import model.Board;
+import model.LineWindows;
 import model.Player;
+import model.SearchBoard;
+import model.WindowCounts;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class HeuristicEvaluator {
-    public int evaluate(GameState state, Player player) {
+    // Batches are scored this many positions at a time, so a chunk's
+    // counters stay in L1 while every window is swept over it
+    private static final int BATCH_CHUNK = 1024;
+    private static final int PARALLEL_THRESHOLD = 16 * BATCH_CHUNK;
+
+    private final boolean incremental;
+
+    public HeuristicEvaluator() {
+        this(false);
+    }
+
+    // In incremental mode a SearchBoard's line score is read from the window
+    // counts it maintains on play/undo instead of rescanning every window
+    public HeuristicEvaluator(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public int evaluate(Board state, Player player) {
         if (state.isTerminal()) {
             return state.getUtility() * (player == Player.X ? 1 : -1);
         }
 
         int score = 0;
-        score += evaluateLines(state, player);
+        if (incremental && state instanceof SearchBoard) {
+            score += evaluateLines(((SearchBoard) state).getWindowCounts(), player);
+        } else {
+            score += evaluateLines(state, player);
+        }
         score += evaluateCenterControl(state, player);
         score += evaluateMobility(state, player);
 
         return score;
     }
 
-    private int evaluateLines(GameState state, Player player) {
-        int score = 0;
-        int m = state.getSize();
-        int k = state.getK();
+    // Scores every position of the batch as evaluate(state, player) would,
+    // into scores[0..count). Large batches are split across the common pool.
+    public void evaluateBatch(PositionBatch batch, Player player, int[] scores) {
+        if (batch.getCount() >= PARALLEL_THRESHOLD) {
+            evaluateBatch(batch, player, scores, ForkJoinPool.commonPool());
+        } else {
+            checkScores(batch, scores);
+            for (int from = 0; from < batch.getCount(); from += BATCH_CHUNK) {
+                evaluateChunk(batch, player, scores, from, Math.min(from + BATCH_CHUNK, batch.getCount()));
+            }
+        }
+    }
 
-        // Check rows
-        for (int i = 0; i < m; i++) {
-            for (int j = 0; j <= m - k; j++) {
-                score += evaluateLine(state, i, j, 0, 1, k, player);
+    public void evaluateBatch(PositionBatch batch, Player player, int[] scores, ForkJoinPool pool) {
+        checkScores(batch, scores);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < batch.getCount(); from += BATCH_CHUNK) {
+            int start = from;
+            int end = Math.min(from + BATCH_CHUNK, batch.getCount());
+            tasks.add(() -> {
+                evaluateChunk(batch, player, scores, start, end);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during batch evaluation", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch evaluation task failed", e.getCause());
         }
+    }
+
+    private static void checkScores(PositionBatch batch, int[] scores) {
+        if (scores.length < batch.getCount()) {
+            throw new IllegalArgumentException("Need " + batch.getCount() + " scores, got " + scores.length);
+        }
+    }
 
-        // Check columns
-        for (int j = 0; j < m; j++) {
-            for (int i = 0; i <= m - k; i++) {
-                score += evaluateLine(state, i, j, 1, 0, k, player);
+    // Positions [from, to) of the batch. Each pass runs one window cell or
+    // one window over the whole chunk: a straight loop over consecutive
+    // bytes with no branches, which the JIT unrolls and vectorises.
+    private static void evaluateChunk(PositionBatch batch, Player player, int[] scores, int from, int to) {
+        int m = batch.getSize();
+        int k = batch.getK();
+        int stride = batch.getCapacity();
+        byte[] cells = batch.cells();
+        int n = to - from;
+        // Codes are X = 1, O = 2, so a shift picks a side's bit
+        int ownShift = player == Player.X ? 0 : 1;
+        int opponentShift = 1 - ownShift;
+
+        // Window score and win flags (1 player, 2 opponent) by own * (k + 1) + opponent
+        int[] windowScores = new int[(k + 1) * (k + 1)];
+        int[] windowWins = new int[(k + 1) * (k + 1)];
+        for (int own = 0; own <= k; own++) {
+            for (int opponent = 0; opponent <= k; opponent++) {
+                int index = own * (k + 1) + opponent;
+                if (own > 0 && opponent == 0) {
+                    windowScores[index] = WindowCounts.powerOfTen(own);
+                } else if (opponent > 0 && own == 0) {
+                    windowScores[index] = -WindowCounts.powerOfTen(opponent);
+                }
+                windowWins[index] = (own == k ? 1 : 0) | (opponent == k ? 2 : 0);
             }
         }
 
-        // Check diagonals
-        for (int i = 0; i <= m - k; i++) {
-            for (int j = 0; j <= m - k; j++) {
-                score += evaluateLine(state, i, j, 1, 1, k, player);
+        int[] lines = new int[n];
+        int[] wins = new int[n];
+        // Own stones in the low half, opponent stones in the high half
+        int[] counts = new int[n];
+        LineWindows windows = LineWindows.forBoard(m, k);
+        for (int w = 0; w < windows.getWindowCount(); w++) {
+            for (int i = 0; i < k; i++) {
+                int base = windows.getCell(w, i) * stride + from;
+                for (int p = 0; p < n; p++) {
+                    int code = cells[base + p];
+                    counts[p] += ((code >> ownShift) & 1) | (((code >> opponentShift) & 1) << 16);
+                }
+            }
+            for (int p = 0; p < n; p++) {
+                int index = (counts[p] & 0xFFFF) * (k + 1) + (counts[p] >>> 16);
+                lines[p] += windowScores[index];
+                wins[p] |= windowWins[index];
+                counts[p] = 0;
             }
         }
 
-        // Check anti-diagonals
-        for (int i = 0; i <= m - k; i++) {
-            for (int j = k - 1; j < m; j++) {
-                score += evaluateLine(state, i, j, 1, -1, k, player);
+        int[] stones = counts;
+        int[] centerScores = new int[n];
+        int center = m / 2;
+        for (int cell = 0; cell < m * m; cell++) {
+            int row = cell / m;
+            int col = cell % m;
+            int weight = Math.abs(row - center) <= 1 && Math.abs(col - center) <= 1 ? 1 : 0;
+            if (row == center && col == center) {
+                weight += 3;
+            }
+            int base = cell * stride + from;
+            for (int p = 0; p < n; p++) {
+                int code = cells[base + p];
+                stones[p] += (code | (code >> 1)) & 1;
+                centerScores[p] += ((code >> ownShift) & 1) * weight;
             }
         }
 
-        return score;
+        for (int p = 0; p < n; p++) {
+            int score;
+            if (wins[p] != 0) {
+                score = (wins[p] & 1) != 0 ? 1 : -1;
+            } else if (stones[p] == m * m) {
+                score = 0;
+            } else {
+                score = lines[p] + centerScores[p] + m * m - stones[p];
+            }
+            scores[from + p] = score;
+        }
     }
 
-    private int evaluateLine(GameState state, int startRow, int startCol,
-                             int deltaRow, int deltaCol, int length, Player player) {
-        int playerCount = 0;
-        int opponentCount = 0;
-        Player opponent = player.getOpponent();
-
-        for (int i = 0; i < length; i++) {
-            int row = startRow + i * deltaRow;
-            int col = startCol + i * deltaCol;
-            Player cell = state.getPlayerAt(row, col);
+    // Bit-parallel over the board's bitboards rather than cell by cell
+    private int evaluateLines(Board state, Player player) {
+        int[] xOpen = new int[state.getK() + 1];
+        int[] oOpen = new int[state.getK() + 1];
+        state.countOpenWindows(xOpen, oOpen);
+        int[] own = player == Player.X ? xOpen : oOpen;
+        int[] opponent = player == Player.X ? oOpen : xOpen;
 
-            if (cell == player) {
-                playerCount++;
-            } else if (cell == opponent) {
-                opponentCount++;
-            }
+        int score = 0;
+        for (int n = 1; n < own.length; n++) {
+            score += (own[n] - opponent[n]) * WindowCounts.powerOfTen(n);
         }
+        return score;
+    }
 
-        if (playerCount > 0 && opponentCount > 0) {
-            return 0;
-        }
+    private int evaluateLines(WindowCounts counts, Player player) {
+        int score = 0;
+        int k = counts.getWindows().getK();
+        Player opponent = player.getOpponent();
 
-        if (playerCount > 0) {
-            return (int) Math.pow(10, playerCount);
-        } else if (opponentCount > 0) {
-            return -(int) Math.pow(10, opponentCount);
+        for (int n = 1; n <= k; n++) {
+            score += (counts.getOpenWindows(player, n) - counts.getOpenWindows(opponent, n))
+                    * WindowCounts.powerOfTen(n);
         }
 
-        return 0;
+        return score;
     }
 
-    private int evaluateCenterControl(GameState state, Player player) {
+    private int evaluateCenterControl(Board state, Player player) {
         int m = state.getSize();
         int center = m / 2;
         int score = 0;
@@ -104,7 +221,8 @@ public class HeuristicEvaluator {
         return score;
     }
 
-    private int evaluateMobility(GameState state, Player player) {
-        return state.getLegalMoves().size();
+    private int evaluateMobility(Board state, Player player) {
+        int m = state.getSize();
+        return m * m - state.getStoneCount();
     }
 }
\ No newline at end of file
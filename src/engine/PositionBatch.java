@@ -0,0 +1,102 @@
+package engine;
+
+import model.Board;
+import model.Player;
+
+// Positions of one board size packed for HeuristicEvaluator.evaluateBatch.
+// Cells are stored column-major by position: cell c of position p is
+// cells[c * capacity + p], so a pass over one cell of every position reads
+// consecutive bytes. Each cell is EMPTY, X or O.
+public final class PositionBatch {
+    public static final byte EMPTY = 0;
+    public static final byte X = 1;
+    public static final byte O = 2;
+
+    private final int m;
+    private final int k;
+    private final int capacity;
+    private final byte[] cells;
+    private int count;
+
+    public PositionBatch(int m, int k, int capacity) {
+        if (m <= 0 || k <= 0 || capacity < 0) {
+            throw new IllegalArgumentException("Invalid batch: " + m + "x" + m + " k=" + k
+                    + " capacity=" + capacity);
+        }
+        this.m = m;
+        this.k = k;
+        this.capacity = capacity;
+        this.cells = new byte[Math.multiplyExact(m * m, capacity)];
+    }
+
+    // Copies a position into the next slot and returns its index
+    public int add(Board state) {
+        if (state.getSize() != m || state.getK() != k) {
+            throw new IllegalArgumentException("Batch is for " + m + "x" + m + " k=" + k + ", not "
+                    + state.getSize() + "x" + state.getSize() + " k=" + state.getK());
+        }
+        int index = addEmpty();
+        for (int cell = 0; cell < m * m; cell++) {
+            cells[cell * capacity + index] = code(state.getPlayerAt(cell / m, cell % m));
+        }
+        return index;
+    }
+
+    // Appends an empty board, to be filled with set()
+    public int addEmpty() {
+        if (count == capacity) {
+            throw new IllegalStateException("Batch is full: " + capacity + " positions");
+        }
+        int index = count++;
+        for (int cell = 0; cell < m * m; cell++) {
+            cells[cell * capacity + index] = EMPTY;
+        }
+        return index;
+    }
+
+    public void set(int index, int row, int col, Player player) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Position " + index + " of " + count);
+        }
+        if (row < 0 || row >= m || col < 0 || col >= m) {
+            throw new IllegalArgumentException("Cell out of bounds: (" + row + "," + col + ")");
+        }
+        cells[(row * m + col) * capacity + index] = code(player);
+    }
+
+    public Player get(int index, int row, int col) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Position " + index + " of " + count);
+        }
+        byte code = cells[(row * m + col) * capacity + index];
+        return code == EMPTY ? null : code == X ? Player.X : Player.O;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public int getSize() {
+        return m;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    byte[] cells() {
+        return cells;
+    }
+
+    private static byte code(Player player) {
+        return player == null ? EMPTY : player == Player.X ? X : O;
+    }
+}
@@ -0,0 +1,170 @@
+package model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cell (row, col) is bit row * (m + 1) + col; the extra column per row stays
+// empty so shifted lines never wrap into the next row.
+final class Bitboard {
+    static final int DIRECTIONS = 4;
+
+    private static final int[] ROW_STEPS = {0, 1, 1, 1};
+    private static final int[] COL_STEPS = {1, 0, 1, -1};
+    private static final ConcurrentHashMap<Long, long[][]> WINDOW_STARTS = new ConcurrentHashMap<>();
+
+    private Bitboard() {
+    }
+
+    static int stride(int m) {
+        return m + 1;
+    }
+
+    static int words(int m) {
+        return (m * stride(m) + 63) >>> 6;
+    }
+
+    static int index(int m, int row, int col) {
+        return row * stride(m) + col;
+    }
+
+    // Bits of all on-board cells, excluding the spacer column
+    static long[] cellMask(int m) {
+        long[] mask = new long[words(m)];
+        for (int row = 0; row < m; row++) {
+            for (int col = 0; col < m; col++) {
+                set(mask, index(m, row, col));
+            }
+        }
+        return mask;
+    }
+
+    static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    static void clear(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
+    static boolean hasLine(long[] bits, int m, int k) {
+        return LineScan.INSTANCE.hasLine(bits, m, k);
+    }
+
+    // Shift between consecutive cells of a line in direction d: along a
+    // row, down a column, down the diagonal and down the anti-diagonal.
+    // Computed rather than returned as an array, as play() needs all four.
+    static int lineShift(int m, int direction) {
+        return ROW_STEPS[direction] * stride(m) + COL_STEPS[direction];
+    }
+
+    // For each of the lineShift directions, the bits of the cells where a
+    // k-long window starts and stays on the board
+    static long[][] windowStarts(int m, int k) {
+        return WINDOW_STARTS.computeIfAbsent(((long) m << 32) | k, key -> {
+            long[][] starts = new long[DIRECTIONS][words(m)];
+            for (int d = 0; d < DIRECTIONS; d++) {
+                for (int row = 0; row < m; row++) {
+                    for (int col = 0; col < m; col++) {
+                        int endRow = row + (k - 1) * ROW_STEPS[d];
+                        int endCol = col + (k - 1) * COL_STEPS[d];
+                        if (endRow < m && endCol >= 0 && endCol < m) {
+                            set(starts[d], index(m, row, col));
+                        }
+                    }
+                }
+            }
+            return starts;
+        });
+    }
+
+    // Counts of the windows holding n stones of x and none of o into
+    // xOpen[n], and the other way round into oOpen[n], for 1 <= n <= k
+    static void countOpenWindows(long[] x, long[] o, int m, int k, int[] xOpen, int[] oOpen) {
+        LineScan.INSTANCE.countOpenWindows(x, o, m, k, xOpen, oOpen);
+    }
+
+    // A bit survives ANDing with the board shifted by shift, 2*shift, ...
+    // (k-1)*shift only if it starts a run of k stones.
+    static boolean hasRun(long[] bits, int shift, int k) {
+        if (bits.length == 1) {
+            long board = bits[0];
+            long run = board;
+            for (int i = 1; i < k && run != 0; i++) {
+                int s = i * shift;
+                run = s < 64 ? run & (board >>> s) : 0L;
+            }
+            return run != 0;
+        }
+
+        for (int w = 0; w < bits.length; w++) {
+            long run = bits[w];
+            for (int i = 1; i < k && run != 0; i++) {
+                run &= shiftedWord(bits, w, i * shift);
+            }
+            if (run != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Cells within distance king moves of a set cell, the set cells included
+    static long[] neighbours(long[] bits, int m, int distance) {
+        long[] mask = cellMask(m);
+        int stride = stride(m);
+        long[] near = bits.clone();
+        for (int step = 0; step < distance; step++) {
+            // Sideways first, then up and down, covers the 3x3 block; a step
+            // off either edge lands in a spacer column and is masked away
+            long[] wide = or(near, or(shiftLeft(near, 1), shiftRight(near, 1)));
+            near = or(wide, or(shiftLeft(wide, stride), shiftRight(wide, stride)));
+            for (int w = 0; w < near.length; w++) {
+                near[w] &= mask[w];
+            }
+        }
+        return near;
+    }
+
+    private static long[] or(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int w = 0; w < a.length; w++) {
+            result[w] = a[w] | b[w];
+        }
+        return result;
+    }
+
+    private static long[] shiftRight(long[] bits, int shift) {
+        long[] result = new long[bits.length];
+        for (int w = 0; w < bits.length; w++) {
+            result[w] = shiftedWord(bits, w, shift);
+        }
+        return result;
+    }
+
+    private static long[] shiftLeft(long[] bits, int shift) {
+        long[] result = new long[bits.length];
+        int words = shift >>> 6;
+        int offset = shift & 63;
+        for (int w = bits.length - 1; w >= words; w--) {
+            long lo = bits[w - words];
+            long below = w - words - 1 >= 0 ? bits[w - words - 1] : 0L;
+            result[w] = offset == 0 ? lo : (lo << offset) | (below >>> (64 - offset));
+        }
+        return result;
+    }
+
+    // Word w of the multi-word value (bits >>> shift)
+    static long shiftedWord(long[] bits, int w, int shift) {
+        int src = w + (shift >>> 6);
+        int offset = shift & 63;
+        long lo = src < bits.length ? bits[src] : 0L;
+        if (offset == 0) {
+            return lo;
+        }
+        long hi = src + 1 < bits.length ? bits[src + 1] : 0L;
+        return (lo >>> offset) | (hi << (64 - offset));
+    }
+}
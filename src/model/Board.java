@@ -0,0 +1,38 @@
+package model;
+
+import java.util.List;
+
+// Read-only view shared by the immutable GameState and the mutable SearchBoard
+public interface Board {
+    Player getCurrentPlayer();
+
+    Player getPlayerAt(int row, int col);
+
+    int getSize();
+
+    int getK();
+
+    boolean isEmpty(int row, int col);
+
+    List<Position> getLegalMoves();
+
+    boolean isTerminal();
+
+    Player getWinner();
+
+    int getUtility();
+
+    int getStoneCount();
+
+    // Adds the number of windows holding n X stones and no O stones to
+    // xOpen[n], and the same for O to oOpen[n], for 1 <= n <= k
+    void countOpenWindows(int[] xOpen, int[] oOpen);
+
+    long getZobristKey();
+
+    // Smallest key over the 8 board symmetries, and the Symmetry transform
+    // that maps this position onto that canonical form
+    long getCanonicalKey();
+
+    int getCanonicalTransform();
+}
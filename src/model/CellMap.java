@@ -0,0 +1,143 @@
+package model;
+
+import java.util.Arrays;
+
+// Open-addressing hash map from packed cell coordinates (see SparseBoard.cell)
+// to int, for boards too large or unbounded for arrays. Linear probing with
+// backward-shift deletion, so removals leave no tombstones and play/undo can
+// add and remove the same keys forever without the table degrading. A
+// value of 0 means absent: storing 0 removes the key.
+final class CellMap {
+    // Row Integer.MIN_VALUE is outside every board SparseBoard allows
+    private static final long NO_KEY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;
+    private int size;
+
+    CellMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    int get(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            if (keys[slot] == NO_KEY) {
+                return 0;
+            }
+        }
+    }
+
+    void put(long key, int value) {
+        set(find(key), key, value);
+    }
+
+    // Adds delta to the value and returns the new value, probing once
+    int add(long key, int delta) {
+        int slot = find(key);
+        int value = values[slot] + delta;
+        set(slot, key, value);
+        return value;
+    }
+
+    // The key's slot, or the empty slot where it would go
+    private int find(long key) {
+        int slot = slot(key);
+        while (keys[slot] != key && keys[slot] != NO_KEY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void set(int slot, long key, int value) {
+        if (keys[slot] == key) {
+            if (value == 0) {
+                delete(slot);
+            } else {
+                values[slot] = value;
+            }
+        } else if (value != 0) {
+            keys[slot] = key;
+            values[slot] = value;
+            // Kept at most half full, so probes stay short
+            if (++size * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        allocate(MIN_CAPACITY);
+    }
+
+    // Slots, for iterating: keyAt(slot) is NO_KEY for an empty slot
+    int capacity() {
+        return keys.length;
+    }
+
+    boolean isUsed(int slot) {
+        return keys[slot] != NO_KEY;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    // Refills the hole with any later key of the probe run that hashes at
+    // or before it, then carries on from that key's old slot
+    private void delete(int hole) {
+        size--;
+        for (int slot = (hole + 1) & mask; keys[slot] != NO_KEY; slot = (slot + 1) & mask) {
+            int home = slot(keys[slot]);
+            // Distance from home to slot, wrapping, is past the hole
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = NO_KEY;
+        values[hole] = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != NO_KEY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != NO_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, NO_KEY);
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        size = 0;
+    }
+
+    // Fibonacci hashing: the top bits of the product depend on both
+    // coordinates
+    private int slot(long key) {
+        return (int) (key * 0x9E3779B97F4A7C15L >>> shift);
+    }
+}
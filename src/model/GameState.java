@@ -3,57 +3,113 @@ package model;
 import java.util.ArrayList;
 import java.util.List;
 
-public class GameState {
-    private final Player[][] board;
+public class GameState implements Board {
+    private final long[] xBits;
+    private final long[] oBits;
     private final Player currentPlayer;
     private final int m;
     private final int k;
+    private final int stones;
+    private final long[] symmetryKeys;
     private final Player winner;
     private final boolean isTerminal;
 
     public GameState(int m, int k) {
         this.m = m;
         this.k = k;
-        this.board = new Player[m][m];
+        this.xBits = new long[Bitboard.words(m)];
+        this.oBits = new long[Bitboard.words(m)];
         this.currentPlayer = Player.X;
+        this.stones = 0;
+        this.symmetryKeys = new long[Symmetry.COUNT];
         this.winner = null;
         this.isTerminal = false;
     }
 
-    private GameState(Player[][] board, Player currentPlayer, int m, int k, Player winner, boolean isTerminal) {
+    // Takes ownership of the bit arrays; callers must not mutate them afterwards
+    GameState(long[] xBits, long[] oBits, Player currentPlayer, int m, int k, int stones,
+              long[] symmetryKeys, Player winner, boolean isTerminal) {
         this.m = m;
         this.k = k;
-        this.board = copyBoard(board);
+        this.xBits = xBits;
+        this.oBits = oBits;
         this.currentPlayer = currentPlayer;
+        this.stones = stones;
+        this.symmetryKeys = symmetryKeys;
         this.winner = winner;
         this.isTerminal = isTerminal;
     }
 
+    @Override
     public Player getCurrentPlayer() {
         return currentPlayer;
     }
 
+    @Override
     public Player getPlayerAt(int row, int col) {
-        return board[row][col];
+        int index = checkedIndex(row, col);
+        if (Bitboard.get(xBits, index)) return Player.X;
+        if (Bitboard.get(oBits, index)) return Player.O;
+        return null;
     }
 
+    @Override
     public int getSize() {
         return m;
     }
 
+    @Override
     public int getK() {
         return k;
     }
 
+    @Override
     public boolean isEmpty(int row, int col) {
-        return board[row][col] == null;
+        int index = checkedIndex(row, col);
+        return !Bitboard.get(xBits, index) && !Bitboard.get(oBits, index);
     }
 
-    public List<Position> getLegalMoves() {
+    // Empty cells within distance king moves of a stone, with the same
+    // fallbacks as SearchBoard.generateMoves: the center on an empty board,
+    // every empty cell when nothing near a stone is left. Distance 0 gives
+    // the legal moves.
+    public List<Position> getCandidateMoves(int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Candidate distance must not be negative: " + distance);
+        }
+        if (distance == 0 || isTerminal) {
+            return getLegalMoves();
+        }
+        if (stones == 0) {
+            List<Position> opening = new ArrayList<>(1);
+            opening.add(new Position(m / 2, m / 2));
+            return opening;
+        }
+
+        long[] occupied = new long[xBits.length];
+        for (int w = 0; w < occupied.length; w++) {
+            occupied[w] = xBits[w] | oBits[w];
+        }
+        long[] near = Bitboard.neighbours(occupied, m, distance);
         List<Position> moves = new ArrayList<>();
         for (int i = 0; i < m; i++) {
             for (int j = 0; j < m; j++) {
-                if (isEmpty(i, j)) {
+                int index = Bitboard.index(m, i, j);
+                if (Bitboard.get(near, index) && !Bitboard.get(occupied, index)) {
+                    moves.add(new Position(i, j));
+                }
+            }
+        }
+        return moves.isEmpty() ? getLegalMoves() : moves;
+    }
+
+    @Override
+    public List<Position> getLegalMoves() {
+        List<Position> moves = new ArrayList<>(m * m - stones);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                int index = Bitboard.index(m, i, j);
+                if (!Bitboard.get(xBits, index) && !Bitboard.get(oBits, index)) {
                     moves.add(new Position(i, j));
                 }
             }
@@ -66,95 +122,86 @@ public class GameState {
             throw new IllegalArgumentException("Position already occupied: " + move);
         }
 
-        Player[][] newBoard = copyBoard(board);
-        newBoard[move.row][move.col] = currentPlayer;
+        // Only the mover's bits change, so the opponent's array is shared
+        int index = Bitboard.index(m, move.row, move.col);
+        long[] moverBits = (currentPlayer == Player.X ? xBits : oBits).clone();
+        Bitboard.set(moverBits, index);
+        long[] newX = currentPlayer == Player.X ? moverBits : xBits;
+        long[] newO = currentPlayer == Player.O ? moverBits : oBits;
 
         Player nextPlayer = currentPlayer.getOpponent();
-        Player newWinner = calculateWinner(newBoard, move);
-        boolean newIsTerminal = (newWinner != null) || isBoardFull(newBoard);
+        int newStones = stones + 1;
+        long[] newKeys = symmetryKeys.clone();
+        Zobrist.forSize(m).toggle(newKeys, currentPlayer, index);
+        Player newWinner = Bitboard.hasLine(moverBits, m, k) ? currentPlayer : null;
+        boolean newIsTerminal = (newWinner != null) || newStones == m * m;
 
-        return new GameState(newBoard, nextPlayer, m, k, newWinner, newIsTerminal);
+        return new GameState(newX, newO, nextPlayer, m, k, newStones, newKeys, newWinner, newIsTerminal);
     }
 
-    private Player calculateWinner(Player[][] board, Position lastMove) {
-        if (lastMove == null) return null;
-
-        Player player = board[lastMove.row][lastMove.col];
-        if (player == null) return null;
-
-        int[][] directions = {
-                {0, 1},  // horizontal
-                {1, 0},  // vertical
-                {1, 1},  // diagonal
-                {1, -1}  // anti-diagonal
-        };
-
-        for (int[] dir : directions) {
-            int count = 1;
+    @Override
+    public long getZobristKey() {
+        return symmetryKeys[0];
+    }
 
-            count += countConsecutive(board, lastMove, dir[0], dir[1], player);
-            count += countConsecutive(board, lastMove, -dir[0], -dir[1], player);
+    @Override
+    public long getCanonicalKey() {
+        return symmetryKeys[Symmetry.canonicalTransform(symmetryKeys)];
+    }
 
-            if (count >= k) {
-                return player;
-            }
-        }
+    @Override
+    public int getCanonicalTransform() {
+        return Symmetry.canonicalTransform(symmetryKeys);
+    }
 
-        return null;
+    long[] getSymmetryKeys() {
+        return symmetryKeys;
     }
 
-    private int countConsecutive(Player[][] board, Position start, int deltaRow, int deltaCol, Player player) {
-        int count = 0;
-        int row = start.row + deltaRow;
-        int col = start.col + deltaCol;
+    long[] getBits(Player player) {
+        return player == Player.X ? xBits : oBits;
+    }
 
-        while (row >= 0 && row < m && col >= 0 && col < m && board[row][col] == player) {
-            count++;
-            row += deltaRow;
-            col += deltaCol;
-        }
+    @Override
+    public int getStoneCount() {
+        return stones;
+    }
 
-        return count;
+    @Override
+    public void countOpenWindows(int[] xOpen, int[] oOpen) {
+        Bitboard.countOpenWindows(xBits, oBits, m, k, xOpen, oOpen);
     }
 
-    private boolean isBoardFull(Player[][] board) {
-        for (int i = 0; i < m; i++) {
-            for (int j = 0; j < m; j++) {
-                if (board[i][j] == null) {
-                    return false;
-                }
-            }
+    private int checkedIndex(int row, int col) {
+        if (row < 0 || row >= m || col < 0 || col >= m) {
+            throw new IndexOutOfBoundsException("Position out of bounds: (" + row + ", " + col + ")");
         }
-        return true;
+        return Bitboard.index(m, row, col);
     }
 
+    @Override
     public boolean isTerminal() {
         return isTerminal;
     }
 
+    @Override
     public Player getWinner() {
         return winner;
     }
 
+    @Override
     public int getUtility() {
         if (winner == null) return 0;
         return winner == Player.X ? 1 : -1;
     }
 
-    private Player[][] copyBoard(Player[][] original) {
-        Player[][] copy = new Player[m][m];
-        for (int i = 0; i < m; i++) {
-            System.arraycopy(original[i], 0, copy[i], 0, m);
-        }
-        return copy;
-    }
-
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < m; i++) {
             for (int j = 0; j < m; j++) {
-                String symbol = board[i][j] == null ? "." : board[i][j].getSymbol();
+                Player player = getPlayerAt(i, j);
+                String symbol = player == null ? "." : player.getSymbol();
                 sb.append(symbol).append(" ");
             }
             sb.append("\n");
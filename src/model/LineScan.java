@@ -0,0 +1,108 @@
+package model;
+
+// The k-in-a-row scans over bitboards (layout in Bitboard): win detection
+// and counting open windows. This is the scalar version. A Java Vector API
+// version, which runs the words of multi-word boards lane-parallel, lives
+// in src-vector and is built by the Maven "vector" profile (JDK 17+). It is
+// used when the JVM runs with --add-modules jdk.incubator.vector, unless
+// -Dtictactoe.vector=false.
+public class LineScan {
+    static final LineScan INSTANCE = load();
+    // Most counter planes any k needs
+    private static final int MAX_PLANES = 31;
+
+    // The x and o counter planes, reused: the counts are rescanned after
+    // every move
+    private final ThreadLocal<long[][]> planeBuffers = ThreadLocal.withInitial(() -> new long[2][MAX_PLANES]);
+
+    LineScan() {
+    }
+
+    private static LineScan load() {
+        if (!Boolean.parseBoolean(System.getProperty("tictactoe.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return new LineScan();
+        }
+        try {
+            return (LineScan) Class.forName("model.VectorLineScan").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Built without the vector profile, or the API is unusable here
+            return new LineScan();
+        }
+    }
+
+    public static boolean isVectorized() {
+        return INSTANCE.getClass() != LineScan.class;
+    }
+
+    boolean hasLine(long[] bits, int m, int k) {
+        for (int d = 0; d < Bitboard.DIRECTIONS; d++) {
+            if (Bitboard.hasRun(bits, Bitboard.lineShift(m, d), k)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Bit-sliced: plane j of a counter holds bit j of the stone count of
+    // the window starting at each bit, so one pass of word operations
+    // counts 64 windows at once
+    void countOpenWindows(long[] x, long[] o, int m, int k, int[] xOpen, int[] oOpen) {
+        long[][] starts = Bitboard.windowStarts(m, k);
+        int planes = 32 - Integer.numberOfLeadingZeros(k);
+        long[][] counts = planeBuffers.get();
+        long[] xCount = counts[0];
+        long[] oCount = counts[1];
+        for (int d = 0; d < Bitboard.DIRECTIONS; d++) {
+            int shift = Bitboard.lineShift(m, d);
+            for (int w = 0; w < x.length; w++) {
+                long start = starts[d][w];
+                if (start == 0) {
+                    continue;
+                }
+                for (int j = 0; j < planes; j++) {
+                    xCount[j] = 0;
+                    oCount[j] = 0;
+                }
+                for (int i = 0; i < k; i++) {
+                    add(xCount, planes, Bitboard.shiftedWord(x, w, i * shift));
+                    add(oCount, planes, Bitboard.shiftedWord(o, w, i * shift));
+                }
+                tally(xCount, planes, start & ~any(oCount, planes), k, xOpen);
+                tally(oCount, planes, start & ~any(xCount, planes), k, oOpen);
+            }
+        }
+    }
+
+    // Ripple-carry add of one bit per window; only the first planes entries
+    // of a count are in use
+    private static void add(long[] count, int planes, long bits) {
+        long carry = bits;
+        for (int j = 0; j < planes && carry != 0; j++) {
+            long next = count[j] & carry;
+            count[j] ^= carry;
+            carry = next;
+        }
+    }
+
+    private static long any(long[] count, int planes) {
+        long any = 0;
+        for (int j = 0; j < planes; j++) {
+            any |= count[j];
+        }
+        return any;
+    }
+
+    private static void tally(long[] count, int planes, long windows, int k, int[] open) {
+        if (windows == 0) {
+            return;
+        }
+        for (int n = 1; n <= k; n++) {
+            long match = windows;
+            for (int j = 0; j < planes; j++) {
+                match &= (n >>> j & 1) != 0 ? count[j] : ~count[j];
+            }
+            open[n] += Long.bitCount(match);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// Every k-long window of an m x m board in the four line directions, with
+// the reverse index from each cell to the windows passing through it.
+// Cells are numbered row * m + col. Instances are immutable and shared.
+public final class LineWindows {
+    private static final ConcurrentHashMap<Long, LineWindows> CACHE = new ConcurrentHashMap<>();
+
+    private final int m;
+    private final int k;
+    private final int windowCount;
+    private final int[] windowCells;
+    private final int[] cellWindowStart;
+    private final int[] cellWindows;
+
+    private LineWindows(int m, int k) {
+        this.m = m;
+        this.k = k;
+
+        int span = m - k + 1;
+        this.windowCount = span > 0 ? 2 * m * span + 2 * span * span : 0;
+        this.windowCells = new int[windowCount * k];
+
+        int w = 0;
+        // Same window order as HeuristicEvaluator: rows, columns, diagonals, anti-diagonals
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j <= m - k; j++) {
+                w = addWindow(w, i, j, 0, 1);
+            }
+        }
+        for (int j = 0; j < m; j++) {
+            for (int i = 0; i <= m - k; i++) {
+                w = addWindow(w, i, j, 1, 0);
+            }
+        }
+        for (int i = 0; i <= m - k; i++) {
+            for (int j = 0; j <= m - k; j++) {
+                w = addWindow(w, i, j, 1, 1);
+            }
+        }
+        for (int i = 0; i <= m - k; i++) {
+            for (int j = k - 1; j < m; j++) {
+                w = addWindow(w, i, j, 1, -1);
+            }
+        }
+
+        int cells = m * m;
+        this.cellWindowStart = new int[cells + 1];
+        for (int cell : windowCells) {
+            cellWindowStart[cell + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            cellWindowStart[c + 1] += cellWindowStart[c];
+        }
+        this.cellWindows = new int[windowCells.length];
+        int[] fill = new int[cells];
+        for (int i = 0; i < windowCells.length; i++) {
+            int cell = windowCells[i];
+            cellWindows[cellWindowStart[cell] + fill[cell]++] = i / k;
+        }
+    }
+
+    private int addWindow(int w, int row, int col, int deltaRow, int deltaCol) {
+        for (int i = 0; i < k; i++) {
+            windowCells[w * k + i] = (row + i * deltaRow) * m + (col + i * deltaCol);
+        }
+        return w + 1;
+    }
+
+    public static LineWindows forBoard(int m, int k) {
+        return CACHE.computeIfAbsent(((long) m << 32) | k, key -> new LineWindows(m, k));
+    }
+
+    public int getSize() {
+        return m;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public int getWindowCount() {
+        return windowCount;
+    }
+
+    // The i-th cell (0 <= i < k) of window w
+    public int getCell(int window, int i) {
+        return windowCells[window * k + i];
+    }
+
+    public int getWindowsStart(int cell) {
+        return cellWindowStart[cell];
+    }
+
+    public int getWindowsEnd(int cell) {
+        return cellWindowStart[cell + 1];
+    }
+
+    // Windows through a cell are getWindowAt(i) for getWindowsStart(cell) <= i < getWindowsEnd(cell)
+    public int getWindowAt(int i) {
+        return cellWindows[i];
+    }
+}
@@ -0,0 +1,324 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Mutable board for the solvers: play/undo in place instead of allocating a
+// new GameState per node. Use GameState for anything that outlives a search.
+public class SearchBoard implements Board {
+    private final int m;
+    private final int k;
+    private final long[] xBits;
+    private final long[] oBits;
+    private final long[] cellMask;
+    private final Zobrist zobrist;
+    private final int[] history;
+    private int ply;
+    private int stones;
+    private final long[] symmetryKeys;
+    private Player currentPlayer;
+    private Player winner;
+    private boolean isTerminal;
+    private WindowCounts windowCounts;
+    private int candidateDistance;
+    private int[] nearCounts;
+    private long[] nearBits;
+
+    public SearchBoard(GameState state) {
+        this.m = state.getSize();
+        this.k = state.getK();
+        this.xBits = state.getBits(Player.X).clone();
+        this.oBits = state.getBits(Player.O).clone();
+        this.cellMask = Bitboard.cellMask(m);
+        this.stones = state.getStoneCount();
+        this.symmetryKeys = state.getSymmetryKeys().clone();
+        this.zobrist = Zobrist.forSize(m);
+        this.history = new int[m * m - stones];
+        this.currentPlayer = state.getCurrentPlayer();
+        this.winner = state.getWinner();
+        this.isTerminal = state.isTerminal();
+    }
+
+    public SearchBoard(Board board) {
+        this(toGameState(board));
+    }
+
+    private static GameState toGameState(Board board) {
+        if (board instanceof GameState) {
+            return (GameState) board;
+        }
+        if (board instanceof SearchBoard) {
+            return ((SearchBoard) board).snapshot();
+        }
+        if (board instanceof SparseBoard) {
+            return ((SparseBoard) board).toGameState();
+        }
+        throw new IllegalArgumentException("Unsupported board type: " + board.getClass().getName());
+    }
+
+    public void play(Position move) {
+        checkedIndex(move.row, move.col);
+        play(move.row * m + move.col);
+    }
+
+    // Plays a move encoded as row * m + col
+    public void play(int cell) {
+        if (isTerminal) {
+            throw new IllegalStateException("Game is already over");
+        }
+        if (cell < 0 || cell >= m * m) {
+            throw new IndexOutOfBoundsException("Move out of bounds: " + cell);
+        }
+        int row = cell / m;
+        int index = Bitboard.index(m, row, cell - row * m);
+        if (Bitboard.get(xBits, index) || Bitboard.get(oBits, index)) {
+            throw new IllegalArgumentException("Position already occupied: " + new Position(row, cell - row * m));
+        }
+
+        long[] moverBits = currentPlayer == Player.X ? xBits : oBits;
+        Bitboard.set(moverBits, index);
+        history[ply++] = index;
+        if (windowCounts != null) {
+            windowCounts.place(cell, currentPlayer);
+        }
+        if (nearCounts != null) {
+            updateNear(cell, 1);
+        }
+        stones++;
+        zobrist.toggle(symmetryKeys, currentPlayer, index);
+
+        if (Bitboard.hasLine(moverBits, m, k)) {
+            winner = currentPlayer;
+        }
+        isTerminal = winner != null || stones == m * m;
+        currentPlayer = currentPlayer.getOpponent();
+    }
+
+    // play() refuses terminal positions, so before any played move the game
+    // was running with no winner
+    public void undo() {
+        if (ply == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+
+        int index = history[--ply];
+        stones--;
+        currentPlayer = currentPlayer.getOpponent();
+        Bitboard.clear(currentPlayer == Player.X ? xBits : oBits, index);
+        zobrist.toggle(symmetryKeys, currentPlayer, index);
+        int stride = Bitboard.stride(m);
+        int cell = index / stride * m + index % stride;
+        if (windowCounts != null) {
+            windowCounts.remove(cell, currentPlayer);
+        }
+        if (nearCounts != null) {
+            updateNear(cell, -1);
+        }
+        winner = null;
+        isTerminal = false;
+    }
+
+    // Number of moves played on this board since it was created
+    public int getPly() {
+        return ply;
+    }
+
+    // Writes the empty cells as row * m + col in row-major order and returns
+    // how many were written; moves must hold at least m * m - stones entries.
+    // With a candidate distance set, only cells near a stone are written.
+    public int generateMoves(int[] moves) {
+        if (candidateDistance > 0) {
+            if (stones == 0) {
+                // Opening: nothing to be near yet, and the center is as good
+                // a first move as any on a large board
+                moves[0] = (m / 2) * m + m / 2;
+                return 1;
+            }
+            int count = collectEmpty(nearBits, moves);
+            // Every cell near a stone is taken; fall back to the whole board
+            if (count > 0) {
+                return count;
+            }
+        }
+        return collectEmpty(cellMask, moves);
+    }
+
+    private int collectEmpty(long[] filter, int[] moves) {
+        int stride = Bitboard.stride(m);
+        int count = 0;
+        for (int w = 0; w < xBits.length; w++) {
+            long empty = ~(xBits[w] | oBits[w]) & filter[w];
+            while (empty != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(empty);
+                empty &= empty - 1;
+                moves[count++] = index / stride * m + index % stride;
+            }
+        }
+        return count;
+    }
+
+    // Restricts generateMoves to empty cells within distance king moves of a
+    // stone, which keeps the branching factor of large boards manageable;
+    // 0 means every empty cell. Each cell counts the stones near it, so
+    // play/undo only touch the (2 * distance + 1)^2 block around the move.
+    public void setCandidateDistance(int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Candidate distance must not be negative: " + distance);
+        }
+        candidateDistance = distance;
+        nearCounts = null;
+        nearBits = null;
+        if (distance > 0) {
+            nearCounts = new int[m * m];
+            nearBits = new long[xBits.length];
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < m; j++) {
+                    if (!isEmpty(i, j)) {
+                        updateNear(i * m + j, 1);
+                    }
+                }
+            }
+        }
+    }
+
+    public int getCandidateDistance() {
+        return candidateDistance;
+    }
+
+    private void updateNear(int cell, int delta) {
+        int row = cell / m;
+        int col = cell - row * m;
+        int lastRow = Math.min(m - 1, row + candidateDistance);
+        int lastCol = Math.min(m - 1, col + candidateDistance);
+        for (int i = Math.max(0, row - candidateDistance); i <= lastRow; i++) {
+            for (int j = Math.max(0, col - candidateDistance); j <= lastCol; j++) {
+                int near = i * m + j;
+                nearCounts[near] += delta;
+                if (nearCounts[near] == 0) {
+                    Bitboard.clear(nearBits, Bitboard.index(m, i, j));
+                } else if (delta > 0 && nearCounts[near] == 1) {
+                    Bitboard.set(nearBits, Bitboard.index(m, i, j));
+                }
+            }
+        }
+    }
+
+    // Starts tracking per-window counts on first use; from then on every
+    // play/undo updates only the windows through the changed cell
+    public WindowCounts getWindowCounts() {
+        if (windowCounts == null) {
+            WindowCounts counts = new WindowCounts(LineWindows.forBoard(m, k));
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < m; j++) {
+                    Player player = getPlayerAt(i, j);
+                    if (player != null) {
+                        counts.place(i * m + j, player);
+                    }
+                }
+            }
+            windowCounts = counts;
+        }
+        return windowCounts;
+    }
+
+    public GameState snapshot() {
+        return new GameState(xBits.clone(), oBits.clone(), currentPlayer, m, k, stones, symmetryKeys.clone(),
+                winner, isTerminal);
+    }
+
+    @Override
+    public Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    @Override
+    public Player getPlayerAt(int row, int col) {
+        int index = checkedIndex(row, col);
+        if (Bitboard.get(xBits, index)) return Player.X;
+        if (Bitboard.get(oBits, index)) return Player.O;
+        return null;
+    }
+
+    @Override
+    public int getSize() {
+        return m;
+    }
+
+    @Override
+    public int getK() {
+        return k;
+    }
+
+    @Override
+    public boolean isEmpty(int row, int col) {
+        int index = checkedIndex(row, col);
+        return !Bitboard.get(xBits, index) && !Bitboard.get(oBits, index);
+    }
+
+    @Override
+    public List<Position> getLegalMoves() {
+        List<Position> moves = new ArrayList<>(m * m - stones);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                int index = Bitboard.index(m, i, j);
+                if (!Bitboard.get(xBits, index) && !Bitboard.get(oBits, index)) {
+                    moves.add(new Position(i, j));
+                }
+            }
+        }
+        return moves;
+    }
+
+    @Override
+    public boolean isTerminal() {
+        return isTerminal;
+    }
+
+    @Override
+    public Player getWinner() {
+        return winner;
+    }
+
+    @Override
+    public int getUtility() {
+        if (winner == null) return 0;
+        return winner == Player.X ? 1 : -1;
+    }
+
+    private int checkedIndex(int row, int col) {
+        if (row < 0 || row >= m || col < 0 || col >= m) {
+            throw new IndexOutOfBoundsException("Position out of bounds: (" + row + ", " + col + ")");
+        }
+        return Bitboard.index(m, row, col);
+    }
+
+    @Override
+    public int getStoneCount() {
+        return stones;
+    }
+
+    @Override
+    public void countOpenWindows(int[] xOpen, int[] oOpen) {
+        Bitboard.countOpenWindows(xBits, oBits, m, k, xOpen, oOpen);
+    }
+
+    @Override
+    public long getZobristKey() {
+        return symmetryKeys[0];
+    }
+
+    @Override
+    public long getCanonicalKey() {
+        return symmetryKeys[Symmetry.canonicalTransform(symmetryKeys)];
+    }
+
+    @Override
+    public int getCanonicalTransform() {
+        return Symmetry.canonicalTransform(symmetryKeys);
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
@@ -0,0 +1,396 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Mutable board that stores only its stones, in hash maps keyed by packed
+// coordinates, for boards too large for bitboards or with no edge at all.
+// Everything play/undo maintains is local to the move: the win check walks
+// the four lines through it, the open-window counts update the k windows
+// per direction that contain it, and candidate moves are the empty cells
+// within a king-move distance of a stone, counted per cell. A move costs the
+// same on a 50x50 board as on an unbounded one, and memory grows with the
+// stones played, not the board area.
+public class SparseBoard implements Board {
+    // Coordinates an unbounded board accepts, either side of (0, 0); far
+    // enough from int overflow for any window or neighbourhood arithmetic
+    public static final int MAX_COORDINATE = 1 << 29;
+    // Largest bounded board, whose cell count still fits an int
+    public static final int MAX_SIZE = 1 << 15;
+
+    private static final int[] ROW_STEPS = {0, 1, 1, 1};
+    private static final int[] COL_STEPS = {1, 0, 1, -1};
+    // Window values pack the X count in the low half, O in the high half
+    private static final int X_STONE = 1;
+    private static final int O_STONE = 1 << 16;
+
+    private final int m;
+    private final int k;
+    private final CellMap stones = new CellMap();
+    private final CellMap[] windows = {new CellMap(), new CellMap(), new CellMap(), new CellMap()};
+    private final CellMap near = new CellMap();
+    private final int[] xOpen;
+    private final int[] oOpen;
+    private long[] history = new long[16];
+    private int ply;
+    private long zobristKey;
+    private Player currentPlayer = Player.X;
+    private Player winner;
+    private int candidateDistance = 2;
+
+    // An m x m board, the same game as GameState(m, k)
+    public SparseBoard(int m, int k) {
+        if (m < 1 || m > MAX_SIZE || k < 1 || k >= Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid board: " + m + "x" + m + " k=" + k);
+        }
+        this.m = m;
+        this.k = k;
+        this.xOpen = new int[k + 1];
+        this.oOpen = new int[k + 1];
+    }
+
+    private SparseBoard(int k) {
+        if (k < 1 || k >= Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid line length: " + k);
+        }
+        this.m = 0;
+        this.k = k;
+        this.xOpen = new int[k + 1];
+        this.oOpen = new int[k + 1];
+    }
+
+    // A board without edges: any cell within MAX_COORDINATE of (0, 0) can
+    // be played, and the game only ends with a line
+    public static SparseBoard unbounded(int k) {
+        return new SparseBoard(k);
+    }
+
+    public boolean isUnbounded() {
+        return m == 0;
+    }
+
+    // 0 for an unbounded board
+    @Override
+    public int getSize() {
+        return m;
+    }
+
+    @Override
+    public int getK() {
+        return k;
+    }
+
+    @Override
+    public Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    @Override
+    public Player getPlayerAt(int row, int col) {
+        return player(stones.get(checkedCell(row, col)));
+    }
+
+    @Override
+    public boolean isEmpty(int row, int col) {
+        return stones.get(checkedCell(row, col)) == 0;
+    }
+
+    public void play(Position move) {
+        play(move.row, move.col);
+    }
+
+    public void play(int row, int col) {
+        if (isTerminal()) {
+            throw new IllegalStateException("Game is already over");
+        }
+        long cell = checkedCell(row, col);
+        if (stones.get(cell) != 0) {
+            throw new IllegalArgumentException("Position already occupied: " + new Position(row, col));
+        }
+
+        stones.put(cell, currentPlayer == Player.X ? X_STONE : O_STONE);
+        if (ply == history.length) {
+            history = Arrays.copyOf(history, ply * 2);
+        }
+        history[ply++] = cell;
+        zobristKey ^= stoneKey(cell, currentPlayer) ^ Zobrist.SIDE_TO_MOVE;
+        updateWindows(row, col, currentPlayer == Player.X ? X_STONE : O_STONE);
+        updateNear(row, col, 1);
+        if (hasLineThrough(row, col, currentPlayer)) {
+            winner = currentPlayer;
+        }
+        currentPlayer = currentPlayer.getOpponent();
+    }
+
+    // play() refuses terminal positions, so before any played move the game
+    // was running with no winner
+    public void undo() {
+        if (ply == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+
+        long cell = history[--ply];
+        currentPlayer = currentPlayer.getOpponent();
+        stones.put(cell, 0);
+        zobristKey ^= stoneKey(cell, currentPlayer) ^ Zobrist.SIDE_TO_MOVE;
+        updateWindows(row(cell), col(cell), currentPlayer == Player.X ? -X_STONE : -O_STONE);
+        updateNear(row(cell), col(cell), -1);
+        winner = null;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    // Empty cells within distance king moves of a stone, in row-major order;
+    // the center, or (0, 0) when unbounded, on an empty board. A bounded
+    // board with nothing near a stone left falls back to every empty cell.
+    public List<Position> getCandidateMoves() {
+        List<Position> moves = new ArrayList<>();
+        if (ply == 0) {
+            moves.add(new Position(m / 2, m / 2));
+            return moves;
+        }
+        long[] cells = new long[near.size()];
+        int count = 0;
+        for (int slot = 0; slot < near.capacity(); slot++) {
+            if (near.isUsed(slot) && stones.get(near.keyAt(slot)) == 0) {
+                cells[count++] = near.keyAt(slot);
+            }
+        }
+        // Packed cells sort row-major
+        Arrays.sort(cells, 0, count);
+        for (int i = 0; i < count; i++) {
+            moves.add(new Position(row(cells[i]), col(cells[i])));
+        }
+        return moves.isEmpty() ? getLegalMoves() : moves;
+    }
+
+    // Every empty cell of a bounded board, which takes time in proportion to
+    // its area; an unbounded board has no end of them and gives its
+    // candidate moves instead
+    @Override
+    public List<Position> getLegalMoves() {
+        if (isUnbounded()) {
+            return getCandidateMoves();
+        }
+        List<Position> moves = new ArrayList<>(m * m - ply);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                if (stones.get(cell(i, j)) == 0) {
+                    moves.add(new Position(i, j));
+                }
+            }
+        }
+        return moves;
+    }
+
+    // The king-move distance for getCandidateMoves, at least 1
+    public void setCandidateDistance(int distance) {
+        if (distance < 1) {
+            throw new IllegalArgumentException("Candidate distance must be positive: " + distance);
+        }
+        candidateDistance = distance;
+        near.clear();
+        for (int i = 0; i < ply; i++) {
+            updateNear(row(history[i]), col(history[i]), 1);
+        }
+    }
+
+    public int getCandidateDistance() {
+        return candidateDistance;
+    }
+
+    @Override
+    public boolean isTerminal() {
+        return winner != null || (m > 0 && ply == m * m);
+    }
+
+    @Override
+    public Player getWinner() {
+        return winner;
+    }
+
+    @Override
+    public int getUtility() {
+        if (winner == null) return 0;
+        return winner == Player.X ? 1 : -1;
+    }
+
+    @Override
+    public int getStoneCount() {
+        return ply;
+    }
+
+    // Only windows holding a stone are tracked, which is all this counts
+    @Override
+    public void countOpenWindows(int[] xOpen, int[] oOpen) {
+        for (int n = 1; n <= k; n++) {
+            xOpen[n] += this.xOpen[n];
+            oOpen[n] += this.oOpen[n];
+        }
+    }
+
+    // Keys hash packed coordinates instead of indexing a table, so they need
+    // no board size; the side to move is folded in as in Zobrist
+    @Override
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    // Symmetries are not reduced: an unbounded board has no center to
+    // reflect about, so every position is its own canonical form
+    @Override
+    public long getCanonicalKey() {
+        return zobristKey;
+    }
+
+    @Override
+    public int getCanonicalTransform() {
+        return 0;
+    }
+
+    // The same position as a GameState, for the bitboard solvers; bounded
+    // boards only
+    public GameState toGameState() {
+        if (isUnbounded()) {
+            throw new IllegalStateException("An unbounded board has no GameState");
+        }
+        GameState state = new GameState(m, k);
+        for (int i = 0; i < ply; i++) {
+            state = state.makeMove(new Position(row(history[i]), col(history[i])));
+        }
+        return state;
+    }
+
+    // Row in the high half and column in the low half; as signed longs,
+    // packed cells sort row-major
+    static long cell(int row, int col) {
+        return (long) row << 32 | (col & 0xFFFFFFFFL);
+    }
+
+    static int row(long cell) {
+        return (int) (cell >> 32);
+    }
+
+    static int col(long cell) {
+        return (int) cell;
+    }
+
+    private long checkedCell(int row, int col) {
+        boolean inside = isUnbounded()
+                ? row >= -MAX_COORDINATE && row <= MAX_COORDINATE && col >= -MAX_COORDINATE
+                        && col <= MAX_COORDINATE
+                : row >= 0 && row < m && col >= 0 && col < m;
+        if (!inside) {
+            throw new IndexOutOfBoundsException("Position out of bounds: (" + row + ", " + col + ")");
+        }
+        return cell(row, col);
+    }
+
+    private boolean onBoard(int row, int col) {
+        return isUnbounded() || (row >= 0 && row < m && col >= 0 && col < m);
+    }
+
+    private static Player player(int stone) {
+        return stone == X_STONE ? Player.X : stone == O_STONE ? Player.O : null;
+    }
+
+    // A random-looking key per (cell, player) from the splitmix64 finalizer
+    private static long stoneKey(long cell, Player player) {
+        long z = cell * 2 + (player == Player.X ? 0 : 1) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Counts a run of k through the cell just played, walking both ways
+    // along each direction
+    private boolean hasLineThrough(int row, int col, Player player) {
+        int stone = player == Player.X ? X_STONE : O_STONE;
+        for (int d = 0; d < ROW_STEPS.length; d++) {
+            int run = 1;
+            for (int sign = -1; sign <= 1; sign += 2) {
+                int r = row + sign * ROW_STEPS[d];
+                int c = col + sign * COL_STEPS[d];
+                while (run < k && onBoard(r, c) && stones.get(cell(r, c)) == stone) {
+                    run++;
+                    r += sign * ROW_STEPS[d];
+                    c += sign * COL_STEPS[d];
+                }
+            }
+            if (run >= k) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Adds delta (a signed X_STONE or O_STONE) to each window containing the
+    // cell, keyed by the window's first cell, keeping the open counts in step
+    private void updateWindows(int row, int col, int delta) {
+        for (int d = 0; d < ROW_STEPS.length; d++) {
+            for (int i = 0; i < k; i++) {
+                int startRow = row - i * ROW_STEPS[d];
+                int startCol = col - i * COL_STEPS[d];
+                if (!onBoard(startRow, startCol) || !onBoard(startRow + (k - 1) * ROW_STEPS[d],
+                        startCol + (k - 1) * COL_STEPS[d])) {
+                    continue;
+                }
+                int counts = windows[d].add(cell(startRow, startCol), delta);
+                countWindow(counts - delta, -1);
+                countWindow(counts, 1);
+            }
+        }
+    }
+
+    private void countWindow(int counts, int delta) {
+        int x = counts & 0xFFFF;
+        int o = counts >>> 16;
+        if (o == 0) {
+            if (x > 0) xOpen[x] += delta;
+        } else if (x == 0) {
+            oOpen[o] += delta;
+        }
+    }
+
+    private void updateNear(int row, int col, int delta) {
+        for (int i = row - candidateDistance; i <= row + candidateDistance; i++) {
+            for (int j = col - candidateDistance; j <= col + candidateDistance; j++) {
+                if (onBoard(i, j)) {
+                    near.add(cell(i, j), delta);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (ply == 0) {
+            return isUnbounded() ? "(empty)\n" : new GameState(m, k).toString();
+        }
+        // Unbounded boards print the rectangle around the stones
+        int top = isUnbounded() ? Integer.MAX_VALUE : 0;
+        int left = top;
+        int bottom = isUnbounded() ? Integer.MIN_VALUE : m - 1;
+        int right = bottom;
+        if (isUnbounded()) {
+            for (int i = 0; i < ply; i++) {
+                top = Math.min(top, row(history[i]));
+                bottom = Math.max(bottom, row(history[i]));
+                left = Math.min(left, col(history[i]));
+                right = Math.max(right, col(history[i]));
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = top; i <= bottom; i++) {
+            for (int j = left; j <= right; j++) {
+                Player player = player(stones.get(cell(i, j)));
+                sb.append(player == null ? "." : player.getSymbol()).append(" ");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package model;
+
+// The 8 symmetries of a square board. Transform 0 is the identity; the
+// canonical form of a position is the transform with the smallest key.
+public final class Symmetry {
+    public static final int COUNT = 8;
+
+    private static final int[] INVERSE = {0, 3, 2, 1, 4, 5, 6, 7};
+
+    private Symmetry() {
+    }
+
+    public static int inverse(int transform) {
+        return INVERSE[transform];
+    }
+
+    public static int transformRow(int transform, int row, int col, int m) {
+        int n = m - 1;
+        switch (transform) {
+            case 0: return row;          // identity
+            case 1: return col;          // rotate 90
+            case 2: return n - row;      // rotate 180
+            case 3: return n - col;      // rotate 270
+            case 4: return row;          // mirror columns
+            case 5: return n - row;      // mirror rows
+            case 6: return col;          // transpose
+            case 7: return n - col;      // anti-transpose
+            default: throw new IllegalArgumentException("Unknown transform: " + transform);
+        }
+    }
+
+    public static int transformCol(int transform, int row, int col, int m) {
+        int n = m - 1;
+        switch (transform) {
+            case 0: return col;
+            case 1: return n - row;
+            case 2: return n - col;
+            case 3: return row;
+            case 4: return n - col;
+            case 5: return col;
+            case 6: return row;
+            case 7: return n - row;
+            default: throw new IllegalArgumentException("Unknown transform: " + transform);
+        }
+    }
+
+    public static Position apply(int transform, Position position, int m) {
+        return new Position(transformRow(transform, position.row, position.col, m),
+                transformCol(transform, position.row, position.col, m));
+    }
+
+    // Cells numbered row * m + col
+    public static int applyToCell(int transform, int cell, int m) {
+        int row = cell / m;
+        int col = cell % m;
+        return transformRow(transform, row, col, m) * m + transformCol(transform, row, col, m);
+    }
+
+    // Index of the smallest key; ties resolve to the lowest transform
+    static int canonicalTransform(long[] keys) {
+        int best = 0;
+        for (int t = 1; t < COUNT; t++) {
+            if (keys[t] < keys[best]) {
+                best = t;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,144 @@
+package model;
+
+// Per-window stone counts for both players, kept in step with a SearchBoard.
+// A window is "open" for a player when it holds only that player's stones;
+// getOpenWindows(p, n) counts open windows with exactly n stones of p.
+public class WindowCounts {
+    // Line weights, shared with HeuristicEvaluator: an open window with n
+    // stones is worth 10^n, saturating like the (int) Math.pow cast it replaced
+    private static final int[] POWERS_OF_TEN = {
+            1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000,
+            Integer.MAX_VALUE
+    };
+
+    private final LineWindows windows;
+    private final byte[] xCounts;
+    private final byte[] oCounts;
+    private final int[] xOpen;
+    private final int[] oOpen;
+    // Windows holding an O stone, so that X can no longer complete them, and
+    // the other way round
+    private int xBlocked;
+    private int oBlocked;
+    private int[] xGains;
+    private int[] oGains;
+
+    WindowCounts(LineWindows windows) {
+        this.windows = windows;
+        this.xCounts = new byte[windows.getWindowCount()];
+        this.oCounts = new byte[windows.getWindowCount()];
+        this.xOpen = new int[windows.getK() + 1];
+        this.oOpen = new int[windows.getK() + 1];
+    }
+
+    void place(int cell, Player player) {
+        byte[] counts = player == Player.X ? xCounts : oCounts;
+        int end = windows.getWindowsEnd(cell);
+        for (int i = windows.getWindowsStart(cell); i < end; i++) {
+            int w = windows.getWindowAt(i);
+            uncount(w);
+            counts[w]++;
+            count(w);
+        }
+    }
+
+    void remove(int cell, Player player) {
+        byte[] counts = player == Player.X ? xCounts : oCounts;
+        int end = windows.getWindowsEnd(cell);
+        for (int i = windows.getWindowsStart(cell); i < end; i++) {
+            int w = windows.getWindowAt(i);
+            uncount(w);
+            counts[w]--;
+            count(w);
+        }
+    }
+
+    private void count(int w) {
+        int x = xCounts[w];
+        int o = oCounts[w];
+        if (xGains != null) {
+            addGains(w, x, o, 1);
+        }
+        if (o > 0) xBlocked++;
+        if (x > 0) oBlocked++;
+        if (o == 0) {
+            if (x > 0) xOpen[x]++;
+        } else if (x == 0) {
+            oOpen[o]++;
+        }
+    }
+
+    private void uncount(int w) {
+        int x = xCounts[w];
+        int o = oCounts[w];
+        if (xGains != null) {
+            addGains(w, x, o, -1);
+        }
+        if (o > 0) xBlocked--;
+        if (x > 0) oBlocked--;
+        if (o == 0) {
+            if (x > 0) xOpen[x]--;
+        } else if (x == 0) {
+            oOpen[o]--;
+        }
+    }
+
+    private void addGains(int w, int x, int o, int sign) {
+        int xGain = sign * gain(x, o);
+        int oGain = sign * gain(o, x);
+        int k = windows.getK();
+        for (int i = 0; i < k; i++) {
+            int cell = windows.getCell(w, i);
+            xGains[cell] += xGain;
+            oGains[cell] += oGain;
+        }
+    }
+
+    // Change in a window's line score, for the player holding own stones in
+    // it, when that player adds a stone: an open line grows, an opponent's
+    // line is blocked, a mixed window stays worthless
+    private static int gain(int own, int other) {
+        if (other == 0) {
+            return powerOfTen(own + 1) - (own == 0 ? 0 : powerOfTen(own));
+        }
+        return own == 0 ? powerOfTen(other) : 0;
+    }
+
+    public static int powerOfTen(int n) {
+        return POWERS_OF_TEN[Math.min(n, POWERS_OF_TEN.length - 1)];
+    }
+
+    // How much the line score (as HeuristicEvaluator counts it) would rise
+    // for player if player moved to the empty cell. Sums are built on first
+    // use and from then on kept up to date by place/remove, touching only
+    // the cells of windows whose counts changed.
+    public int getMoveGain(int cell, Player player) {
+        if (xGains == null) {
+            int cells = windows.getSize() * windows.getSize();
+            xGains = new int[cells];
+            oGains = new int[cells];
+            for (int w = 0; w < windows.getWindowCount(); w++) {
+                addGains(w, xCounts[w], oCounts[w], 1);
+            }
+        }
+        return player == Player.X ? xGains[cell] : oGains[cell];
+    }
+
+    public LineWindows getWindows() {
+        return windows;
+    }
+
+    public int getCount(int window, Player player) {
+        return player == Player.X ? xCounts[window] : oCounts[window];
+    }
+
+    public int getOpenWindows(Player player, int stones) {
+        return player == Player.X ? xOpen[stones] : oOpen[stones];
+    }
+
+    // Windows player could still complete: those with no opponent stone,
+    // empty ones included
+    public int getLiveWindows(Player player) {
+        return windows.getWindowCount() - (player == Player.X ? xBlocked : oBlocked);
+    }
+}
@@ -0,0 +1,56 @@
+package model;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Random keys per (player, cell); a position's key is the XOR of the keys of
+// its stones, plus SIDE_TO_MOVE when O is to move. Keys are fixed per board
+// size so hashes are reproducible across runs.
+//
+// Positions carry one key per symmetry: key t hashes the board as seen
+// through Symmetry transform t, so all 8 update with one XOR each per move.
+final class Zobrist {
+    static final long SIDE_TO_MOVE = 0x9E3779B97F4A7C15L;
+
+    private static final ConcurrentHashMap<Integer, Zobrist> BY_SIZE = new ConcurrentHashMap<>();
+
+    private final long[][] xKeys;
+    private final long[][] oKeys;
+
+    private Zobrist(int m) {
+        Random random = new Random(0x5DEECE66DL * 31 + m);
+        int cells = m * Bitboard.stride(m);
+        long[] xBase = new long[cells];
+        long[] oBase = new long[cells];
+        for (int i = 0; i < cells; i++) {
+            xBase[i] = random.nextLong();
+            oBase[i] = random.nextLong();
+        }
+
+        xKeys = new long[Symmetry.COUNT][cells];
+        oKeys = new long[Symmetry.COUNT][cells];
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            for (int row = 0; row < m; row++) {
+                for (int col = 0; col < m; col++) {
+                    int index = Bitboard.index(m, row, col);
+                    int image = Bitboard.index(m, Symmetry.transformRow(t, row, col, m),
+                            Symmetry.transformCol(t, row, col, m));
+                    xKeys[t][index] = xBase[image];
+                    oKeys[t][index] = oBase[image];
+                }
+            }
+        }
+    }
+
+    static Zobrist forSize(int m) {
+        return BY_SIZE.computeIfAbsent(m, Zobrist::new);
+    }
+
+    // Toggles a stone (and the side to move) in all symmetry keys
+    void toggle(long[] keys, Player player, int index) {
+        long[][] table = player == Player.X ? xKeys : oKeys;
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            keys[t] ^= table[t][index] ^ SIDE_TO_MOVE;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Spans one iterative-deepening iteration
+@Name("tictactoe.IterationComplete")
+@Label("Iteration Complete")
+@Category({"Tic-Tac-Toe", "Search"})
+@Description("An iterative-deepening iteration finished")
+@StackTrace(false)
+public class IterationEvent extends jdk.jfr.Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Nodes")
+    @Description("Nodes searched by the call so far")
+    long nodes;
+
+    @Label("Best Row")
+    int bestRow;
+
+    @Label("Best Column")
+    int bestCol;
+}
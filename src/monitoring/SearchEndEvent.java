@@ -0,0 +1,36 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Spans the whole call, so the event's duration is the search latency
+@Name("tictactoe.SearchEnd")
+@Label("Search")
+@Category({"Tic-Tac-Toe", "Search"})
+@Description("A solver call finished")
+@StackTrace(false)
+public class SearchEndEvent extends jdk.jfr.Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Board Size")
+    int boardSize;
+
+    @Label("K")
+    int k;
+
+    @Label("Depth Reached")
+    int depthReached;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Table Probes")
+    long tableProbes;
+
+    @Label("Table Hits")
+    long tableHits;
+}
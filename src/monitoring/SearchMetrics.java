@@ -0,0 +1,143 @@
+package monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// The MXBean behind SearchMetricsMXBean, registered with the platform MBean
+// server as OBJECT_NAME the first time a search reports to it. Recording is
+// one short synchronized call per search, never per node.
+public final class SearchMetrics implements SearchMetricsMXBean {
+    public static final String OBJECT_NAME = "tictactoe:type=SearchMetrics";
+
+    // Latency percentiles cover this many of the latest searches
+    private static final int WINDOW = 1024;
+    private static final long RATE_WINDOW_NANOS = 10_000_000_000L;
+
+    private static final SearchMetrics INSTANCE = register(new SearchMetrics());
+
+    private final long[] latencies = new long[WINDOW];
+    private final long[] finishTimes = new long[WINDOW];
+    private int next;
+    private long searchCount;
+    private long totalNodes;
+    private long totalNanos;
+    private long tableProbes;
+    private long tableHits;
+
+    private SearchMetrics() {
+    }
+
+    public static SearchMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    private static SearchMetrics register(SearchMetrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Another copy of these classes got there first; this one still counts
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+        return metrics;
+    }
+
+    synchronized void record(long nanos, long nodes, long probes, long hits) {
+        latencies[next] = nanos;
+        finishTimes[next] = System.nanoTime();
+        next = (next + 1) % WINDOW;
+        searchCount++;
+        totalNodes += nodes;
+        totalNanos += nanos;
+        tableProbes += probes;
+        tableHits += hits;
+    }
+
+    @Override
+    public synchronized long getSearchCount() {
+        return searchCount;
+    }
+
+    // Over the last 10 seconds, or over the recorded window if that is
+    // shorter
+    @Override
+    public synchronized double getSearchesPerSecond() {
+        int recorded = (int) Math.min(searchCount, WINDOW);
+        if (recorded == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        int recent = 0;
+        long oldest = now;
+        for (int i = 0; i < recorded; i++) {
+            if (now - finishTimes[i] <= RATE_WINDOW_NANOS) {
+                recent++;
+                oldest = Math.min(oldest, finishTimes[i]);
+            }
+        }
+        if (recent == WINDOW) {
+            return recent * 1e9 / Math.max(now - oldest, 1);
+        }
+        return recent * 1e9 / RATE_WINDOW_NANOS;
+    }
+
+    @Override
+    public double getLatencyP50Millis() {
+        return latencyPercentile(0.50);
+    }
+
+    @Override
+    public double getLatencyP90Millis() {
+        return latencyPercentile(0.90);
+    }
+
+    @Override
+    public double getLatencyP99Millis() {
+        return latencyPercentile(0.99);
+    }
+
+    @Override
+    public double getLatencyMaxMillis() {
+        return latencyPercentile(1.0);
+    }
+
+    @Override
+    public synchronized long getTotalNodes() {
+        return totalNodes;
+    }
+
+    @Override
+    public synchronized double getNodesPerSecond() {
+        return totalNanos == 0 ? 0 : totalNodes * 1e9 / totalNanos;
+    }
+
+    @Override
+    public synchronized double getTableHitRate() {
+        return tableProbes == 0 ? 0 : (double) tableHits / tableProbes;
+    }
+
+    @Override
+    public synchronized void reset() {
+        next = 0;
+        searchCount = 0;
+        totalNodes = 0;
+        totalNanos = 0;
+        tableProbes = 0;
+        tableHits = 0;
+    }
+
+    // Nearest-rank percentile of the recorded latencies
+    private synchronized double latencyPercentile(double fraction) {
+        int recorded = (int) Math.min(searchCount, WINDOW);
+        if (recorded == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, recorded);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(fraction * recorded);
+        return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+}
@@ -0,0 +1,25 @@
+package monitoring;
+
+// Aggregates over every solver call in this JVM; latencies and rates cover
+// the most recent calls only, so they follow the current load
+public interface SearchMetricsMXBean {
+    long getSearchCount();
+
+    double getSearchesPerSecond();
+
+    double getLatencyP50Millis();
+
+    double getLatencyP90Millis();
+
+    double getLatencyP99Millis();
+
+    double getLatencyMaxMillis();
+
+    long getTotalNodes();
+
+    double getNodesPerSecond();
+
+    double getTableHitRate();
+
+    void reset();
+}
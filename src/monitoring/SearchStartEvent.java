@@ -0,0 +1,26 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("tictactoe.SearchStart")
+@Label("Search Start")
+@Category({"Tic-Tac-Toe", "Search"})
+@Description("A solver call began")
+@StackTrace(false)
+public class SearchStartEvent extends jdk.jfr.Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Board Size")
+    int boardSize;
+
+    @Label("K")
+    int k;
+
+    @Label("Stones")
+    int stones;
+}
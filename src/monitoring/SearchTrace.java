@@ -0,0 +1,75 @@
+package monitoring;
+
+import model.Board;
+
+// One solver call as seen by monitoring: emits the JFR start, iteration and
+// end events and reports the call to SearchMetrics when it ends. Events that
+// no recording has enabled cost a flag check.
+public final class SearchTrace {
+    private final String solver;
+    private final int boardSize;
+    private final int k;
+    private final long start;
+    private final SearchEndEvent endEvent;
+    private IterationEvent iterationEvent;
+
+    private SearchTrace(String solver, Board state) {
+        this.solver = solver;
+        this.boardSize = state.getSize();
+        this.k = state.getK();
+        this.start = System.nanoTime();
+
+        SearchStartEvent startEvent = new SearchStartEvent();
+        if (startEvent.isEnabled()) {
+            startEvent.solver = solver;
+            startEvent.boardSize = boardSize;
+            startEvent.k = k;
+            startEvent.stones = state.getStoneCount();
+            startEvent.commit();
+        }
+        this.endEvent = new SearchEndEvent();
+        endEvent.begin();
+        this.iterationEvent = newIteration();
+    }
+
+    public static SearchTrace begin(String solver, Board state) {
+        return new SearchTrace(solver, state);
+    }
+
+    // An iteration to depth finished with nodes searched so far by the call;
+    // the next iteration's event starts now
+    public void iteration(int depth, long nodes, int bestRow, int bestCol) {
+        iterationEvent.end();
+        if (iterationEvent.shouldCommit()) {
+            iterationEvent.solver = solver;
+            iterationEvent.depth = depth;
+            iterationEvent.nodes = nodes;
+            iterationEvent.bestRow = bestRow;
+            iterationEvent.bestCol = bestCol;
+            iterationEvent.commit();
+        }
+        iterationEvent = newIteration();
+    }
+
+    public void end(int depthReached, long nodes, long tableProbes, long tableHits) {
+        long nanos = System.nanoTime() - start;
+        endEvent.end();
+        if (endEvent.shouldCommit()) {
+            endEvent.solver = solver;
+            endEvent.boardSize = boardSize;
+            endEvent.k = k;
+            endEvent.depthReached = depthReached;
+            endEvent.nodes = nodes;
+            endEvent.tableProbes = tableProbes;
+            endEvent.tableHits = tableHits;
+            endEvent.commit();
+        }
+        SearchMetrics.getInstance().record(nanos, nodes, tableProbes, tableHits);
+    }
+
+    private static IterationEvent newIteration() {
+        IterationEvent event = new IterationEvent();
+        event.begin();
+        return event;
+    }
+}
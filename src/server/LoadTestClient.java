@@ -0,0 +1,162 @@
+package server;
+
+import model.GameState;
+import model.Player;
+import model.Position;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process load generator: plays many games at once against a
+// SessionManager, the AI as X and random moves as O. Requests are chained
+// on the futures the manager returns, so the client holds no threads of its
+// own. A rejected request is retried after a pause; an AI move that times
+// out is replaced by a random one so the game goes on.
+public class LoadTestClient {
+    private static final long RETRY_MILLIS = 10;
+
+    private final SessionManager manager;
+    private final long deadlineMillis;
+    private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public LoadTestClient(SessionManager manager, long deadlineMillis) {
+        this.manager = manager;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int m = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        long deadlineMillis = args.length > 3 ? Long.parseLong(args[3]) : 200;
+
+        try (SessionManager manager = new SessionManager()) {
+            LoadTestClient client = new LoadTestClient(manager, deadlineMillis);
+            System.out.println("Playing " + games + " games of " + m + "x" + m + " k=" + k + " on "
+                    + (manager.isUsingVirtualThreads() ? "virtual" : "platform") + " session threads");
+            System.out.println(client.run(games, m, k));
+        }
+    }
+
+    // Plays the games to the end, all of them concurrently
+    public Report run(int games, int m, int k) {
+        long start = System.nanoTime();
+        CompletableFuture<?>[] finished = new CompletableFuture<?>[games];
+        for (int i = 0; i < games; i++) {
+            finished[i] = play(manager.createGame(m, k));
+        }
+        CompletableFuture.allOf(finished).join();
+        return new Report(games, System.nanoTime() - start, latencies, rejections.get(), timeouts.get());
+    }
+
+    private CompletableFuture<Void> play(String id) {
+        GameState state = manager.getState(id);
+        if (state.isTerminal()) {
+            manager.closeGame(id);
+            return CompletableFuture.completedFuture(null);
+        }
+        if (state.getCurrentPlayer() == Player.X) {
+            long start = System.nanoTime();
+            return manager.requestAiMove(id, deadlineMillis).handle((move, error) -> {
+                if (error == null) {
+                    latencies.add(System.nanoTime() - start);
+                }
+                return error;
+            }).thenCompose(error -> next(id, error));
+        }
+        return manager.submitMove(id, randomMove(state))
+                .handle((next, error) -> error)
+                .thenCompose(error -> next(id, error));
+    }
+
+    private CompletableFuture<Void> next(String id, Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause == null) {
+            return play(id);
+        }
+        if (cause instanceof RejectedExecutionException) {
+            rejections.incrementAndGet();
+            // Jittered, so rejected games do not come back all at once
+            long delay = RETRY_MILLIS + ThreadLocalRandom.current().nextLong(RETRY_MILLIS);
+            Executor later = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS);
+            return CompletableFuture.runAsync(() -> { }, later).thenCompose(ignored -> play(id));
+        }
+        if (cause instanceof TimeoutException) {
+            timeouts.incrementAndGet();
+            return manager.submitMove(id, randomMove(manager.getState(id)))
+                    .handle((next, failure) -> failure)
+                    .thenCompose(failure -> next(id, failure));
+        }
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(cause);
+        return failed;
+    }
+
+    private static Position randomMove(GameState state) {
+        List<Position> moves = state.getLegalMoves();
+        return moves.get(ThreadLocalRandom.current().nextInt(moves.size()));
+    }
+
+    public static final class Report {
+        private final int games;
+        private final long elapsedNanos;
+        private final long[] latencies;
+        private final long rejections;
+        private final long timeouts;
+
+        Report(int games, long elapsedNanos, ConcurrentLinkedQueue<Long> latencies, long rejections,
+               long timeouts) {
+            this.games = games;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            this.rejections = rejections;
+            this.timeouts = timeouts;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public long getAiMoves() {
+            return latencies.length;
+        }
+
+        public long getRejections() {
+            return rejections;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public double getAiMovesPerSecond() {
+            return elapsedNanos == 0 ? 0 : latencies.length * 1e9 / elapsedNanos;
+        }
+
+        // Nearest-rank percentile of the AI move latencies, request to reply
+        public double getLatencyMillis(double fraction) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(fraction * latencies.length);
+            return latencies[Math.max(rank, 1) - 1] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("games=%d time=%dms ai-moves=%d (%.0f/s) latency p50=%.1fms p99=%.1fms max=%.1fms "
+                            + "rejected=%d timeouts=%d",
+                    games, elapsedNanos / 1_000_000, latencies.length, getAiMovesPerSecond(),
+                    getLatencyMillis(0.50), getLatencyMillis(0.99), getLatencyMillis(1.0), rejections, timeouts);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package server;
+
+import algorithms.DepthLimitedSolver;
+import engine.GameEngine;
+import model.GameState;
+import model.Position;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hosts many concurrent games. Requests to one game run in order on that
+// game's session thread, a virtual thread when the JVM has them (JDK 21+),
+// which only waits; searches run on a fixed pool of solver threads, one per
+// core by default, behind a bounded queue. Nothing queues without limit: a
+// full solver queue, a full session queue or too many games fail the
+// request at once with RejectedExecutionException, and an AI move that
+// misses its deadline fails with TimeoutException.
+public class SessionManager implements AutoCloseable {
+    // Share of the time left that the search may use; the rest covers
+    // unwinding the last iteration and handing the move back
+    private static final double SEARCH_SHARE = 0.9;
+    // Games running requests at once when there are no virtual threads
+    private static final int MAX_PLATFORM_SESSION_THREADS = 256;
+
+    private final ExecutorService sessionExecutor;
+    private final boolean virtualThreads;
+    private final ThreadPoolExecutor solverExecutor;
+    private final ThreadLocal<DepthLimitedSolver> solvers = ThreadLocal.withInitial(() -> new DepthLimitedSolver(1));
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    // Slots taken by open games; reserved before a game is added, so
+    // concurrent creates cannot overshoot maxGames
+    private final AtomicInteger games = new AtomicInteger();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong aiMoves = new AtomicLong();
+    private int sessionQueueCapacity = 16;
+    private long defaultDeadlineMillis = 1000;
+    private int maxGames = Integer.MAX_VALUE;
+
+    public SessionManager() {
+        this(Runtime.getRuntime().availableProcessors(), 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public SessionManager(int solverThreads, int solverQueueCapacity) {
+        // A queue of at least one also absorbs the moment between a solver
+        // finishing one search and asking for the next
+        if (solverThreads < 1 || solverQueueCapacity < 1) {
+            throw new IllegalArgumentException("Invalid solver pool: " + solverThreads + " threads, queue "
+                    + solverQueueCapacity);
+        }
+        this.solverExecutor = new ThreadPoolExecutor(solverThreads, solverThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(solverQueueCapacity),
+                daemonThreads("solver-"), new ThreadPoolExecutor.AbortPolicy());
+
+        ExecutorService virtual = virtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        // Platform session threads are capped, and a game that finds none
+        // free has its request rejected rather than queued
+        this.sessionExecutor = virtual != null ? virtual
+                : new ThreadPoolExecutor(0, MAX_PLATFORM_SESSION_THREADS, 60, TimeUnit.SECONDS,
+                        new SynchronousQueue<>(), daemonThreads("session-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() where it exists and works;
+    // null before JDK 21, or on 19/20 without --enable-preview
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Requests a game may have waiting behind the one running
+    public void setSessionQueueCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Session queue capacity must be positive: " + capacity);
+        }
+        this.sessionQueueCapacity = capacity;
+    }
+
+    public void setDefaultDeadlineMillis(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Deadline must be positive: " + millis);
+        }
+        this.defaultDeadlineMillis = millis;
+    }
+
+    public void setMaxGames(int maxGames) {
+        if (maxGames < 1) {
+            throw new IllegalArgumentException("Game limit must be positive: " + maxGames);
+        }
+        this.maxGames = maxGames;
+    }
+
+    public String createGame(int m, int k) {
+        if (m < 1 || k < 1) {
+            throw new IllegalArgumentException("Invalid game: " + m + "x" + m + " k=" + k);
+        }
+        Session session = new Session(GameEngine.initialState(m, k));
+        int open;
+        do {
+            open = games.get();
+            if (open >= maxGames) {
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("Game limit reached: " + maxGames);
+            }
+        } while (!games.compareAndSet(open, open + 1));
+        String id = "g" + nextId.incrementAndGet();
+        sessions.put(id, session);
+        return id;
+    }
+
+    public void closeGame(String id) {
+        session(id);
+        // Only the close that removes the game gives its slot back
+        if (sessions.remove(id) != null) {
+            games.decrementAndGet();
+        }
+    }
+
+    public GameState getState(String id) {
+        return session(id).state;
+    }
+
+    // Plays a move for the side to move; completes with the new position
+    public CompletableFuture<GameState> submitMove(String id, Position move) {
+        Session session = session(id);
+        return session.submit(() -> {
+            session.state = playable(session.state).makeMove(move);
+            return session.state;
+        });
+    }
+
+    public CompletableFuture<Position> requestAiMove(String id) {
+        return requestAiMove(id, defaultDeadlineMillis);
+    }
+
+    // Searches for the side to move and plays the move found. The deadline
+    // counts from this call, so time spent queued is part of it.
+    public CompletableFuture<Position> requestAiMove(String id, long deadlineMillis) {
+        Session session = session(id);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        return session.submit(() -> {
+            GameState state = playable(session.state);
+            Position move = search(state, deadline);
+            session.state = state.makeMove(move);
+            aiMoves.incrementAndGet();
+            return move;
+        });
+    }
+
+    // Runs on the session thread, which blocks until the search is done
+    private Position search(GameState state, long deadline) throws Exception {
+        if (System.nanoTime() >= deadline) {
+            throw timeout("AI move expired while queued");
+        }
+        Future<Position> search;
+        try {
+            search = solverExecutor.submit(() -> {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    throw timeout("AI move expired waiting for a solver");
+                }
+                long budget = Math.max(1, (long) (TimeUnit.NANOSECONDS.toMillis(left) * SEARCH_SHARE));
+                return solvers.get().findBestMove(state, budget);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Solver queue is full", e);
+        }
+
+        try {
+            return search.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // The interrupt stops the solver at its next clock check, so the
+            // thread is free for the next queued search
+            search.cancel(true);
+            throw timeout("AI move missed its deadline");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private TimeoutException timeout(String message) {
+        timedOut.incrementAndGet();
+        return new TimeoutException(message);
+    }
+
+    private static GameState playable(GameState state) {
+        if (state.isTerminal()) {
+            throw new IllegalStateException("Game is over");
+        }
+        return state;
+    }
+
+    private Session session(String id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("No such game: " + id);
+        }
+        return session;
+    }
+
+    public int getActiveGames() {
+        return sessions.size();
+    }
+
+    // Requests and games turned away because a queue or the game limit was full
+    public long getRejectedRequests() {
+        return rejected.get();
+    }
+
+    public long getTimedOutRequests() {
+        return timedOut.get();
+    }
+
+    public long getAiMoves() {
+        return aiMoves.get();
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void close() {
+        sessionExecutor.shutdownNow();
+        solverExecutor.shutdownNow();
+        sessions.clear();
+        games.set(0);
+    }
+
+    // One game: its position and the requests waiting for it. A session
+    // thread is started when requests arrive at an idle game and runs them
+    // one at a time until none are left.
+    private final class Session {
+        private final ArrayDeque<Request<?>> queue = new ArrayDeque<>();
+        private boolean running;
+        // Written only by the session thread
+        private volatile GameState state;
+
+        Session(GameState state) {
+            this.state = state;
+        }
+
+        <T> CompletableFuture<T> submit(Callable<T> call) {
+            Request<T> request = new Request<>(call);
+            synchronized (this) {
+                if (queue.size() >= sessionQueueCapacity) {
+                    rejected.incrementAndGet();
+                    request.result.completeExceptionally(
+                            new RejectedExecutionException("Too many requests for this game"));
+                    return request.result;
+                }
+                queue.add(request);
+                if (running) {
+                    return request.result;
+                }
+                running = true;
+            }
+            try {
+                sessionExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // No platform session thread free, or shut down; fails this
+                // request and any that arrived meanwhile
+                synchronized (this) {
+                    for (Request<?> waiting; (waiting = queue.poll()) != null; ) {
+                        rejected.incrementAndGet();
+                        waiting.result.completeExceptionally(e);
+                    }
+                    running = false;
+                }
+            }
+            return request.result;
+        }
+
+        private void drain() {
+            while (true) {
+                Request<?> request;
+                synchronized (this) {
+                    request = queue.poll();
+                    if (request == null) {
+                        running = false;
+                        return;
+                    }
+                }
+                request.run();
+            }
+        }
+    }
+
+    private static final class Request<T> {
+        private final Callable<T> call;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Request(Callable<T> call) {
+            this.call = call;
+        }
+
+        void run() {
+            try {
+                result.complete(call.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package strategies;
 
-import model.GameState;
+import model.Board;
 import model.Position;
 import java.util.List;
 import java.util.ArrayList;
 
 public class CenterFirstMoveOrdering implements MoveOrderingStrategy {
+    // Score scratch per thread; ordering finishes before the solver recurses,
+    // so one buffer serves every ply
+    private final ThreadLocal<int[]> scores = ThreadLocal.withInitial(() -> new int[0]);
+
     @Override
-    public List<Position> orderMoves(GameState state, List<Position> moves) {
+    public List<Position> orderMoves(Board state, List<Position> moves) {
         int m = state.getSize();
         int center = m / 2;
 
@@ -20,4 +24,23 @@ public class CenterFirstMoveOrdering implements MoveOrderingStrategy {
 
         return sorted;
     }
+
+    // Distances are scored once and negated, so the descending score sort
+    // puts the nearest first and keeps ties in generation order
+    @Override
+    public void orderMoves(Board state, int[] moves, int count) {
+        int m = state.getSize();
+        int center = m / 2;
+        int[] scored = scores.get();
+        if (scored.length < count) {
+            scored = new int[moves.length];
+            scores.set(scored);
+        }
+
+        for (int i = 0; i < count; i++) {
+            scored[i] = -(Math.abs(moves[i] / m - center) + Math.abs(moves[i] % m - center));
+        }
+
+        MoveSorting.sortByScoreDescending(moves, scored, count);
+    }
 }
@@ -1,13 +1,13 @@
 package strategies;
 
-import model.GameState;
+import model.Board;
 import model.Position;
 import java.util.List;
 import java.util.ArrayList;
 
 public class DefaultMoveOrdering implements MoveOrderingStrategy {
     @Override
-    public List<Position> orderMoves(GameState state, List<Position> moves) {
+    public List<Position> orderMoves(Board state, List<Position> moves) {
         List<Position> sorted = new ArrayList<>(moves);
         sorted.sort((a, b) -> {
             if (a.row != b.row) return Integer.compare(a.row, b.row);
@@ -15,4 +15,9 @@ public class DefaultMoveOrdering implements MoveOrderingStrategy {
         });
         return sorted;
     }
+
+    @Override
+    public void orderMoves(Board state, int[] moves, int count) {
+        MoveSorting.sortAscending(moves, count);
+    }
 }
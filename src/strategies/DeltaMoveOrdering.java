@@ -0,0 +1,65 @@
+package strategies;
+
+import model.Board;
+import model.Player;
+import model.Position;
+import model.SearchBoard;
+import model.WindowCounts;
+import java.util.ArrayList;
+import java.util.List;
+
+// Orders moves by how much each would raise the mover's heuristic score,
+// read from the per-cell gains the board's window counts keep up to date,
+// so no move is played and nothing is re-evaluated. The order matches
+// HeuristicMoveOrdering except for winning moves, which that strategy scores
+// as a bare utility of 1 and this one by the line they complete.
+public class DeltaMoveOrdering implements MoveOrderingStrategy {
+    // Score scratch per thread; ordering finishes before the solver recurses,
+    // so one buffer serves every ply
+    private final ThreadLocal<int[]> scores = ThreadLocal.withInitial(() -> new int[0]);
+
+    @Override
+    public List<Position> orderMoves(Board state, List<Position> moves) {
+        int m = state.getSize();
+        int[] buffer = new int[moves.size()];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = moves.get(i).row * m + moves.get(i).col;
+        }
+        orderMoves(state, buffer, buffer.length);
+
+        List<Position> result = new ArrayList<>(buffer.length);
+        for (int move : buffer) {
+            result.add(new Position(move / m, move % m));
+        }
+        return result;
+    }
+
+    @Override
+    public void orderMoves(Board state, int[] moves, int count) {
+        SearchBoard board = state instanceof SearchBoard ? (SearchBoard) state : new SearchBoard(state);
+        WindowCounts counts = board.getWindowCounts();
+        Player player = board.getCurrentPlayer();
+        int m = board.getSize();
+        int center = m / 2;
+        int[] scored = scores.get();
+        if (scored.length < count) {
+            scored = new int[moves.length];
+            scores.set(scored);
+        }
+
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int row = move / m;
+            int col = move - row * m;
+            // Center control as HeuristicEvaluator scores it: 3 for the
+            // center plus 1 for each cell of the 3x3 block around it
+            int centerBonus = row == center && col == center ? 3 : 0;
+            if (Math.abs(row - center) <= 1 && Math.abs(col - center) <= 1) {
+                centerBonus++;
+            }
+            scored[i] = counts.getMoveGain(move, player) + centerBonus;
+        }
+
+        MoveSorting.sortByScoreDescending(moves, scored, count);
+    }
+}
@@ -1,25 +1,34 @@
 package strategies;
 
 import engine.HeuristicEvaluator;
-import model.GameState;
+import model.Board;
+import model.Player;
 import model.Position;
+import model.SearchBoard;
 import java.util.List;
 import java.util.ArrayList;
 
 public class HeuristicMoveOrdering implements MoveOrderingStrategy {
     private HeuristicEvaluator evaluator;
+    // Score scratch per thread; ordering finishes before the solver recurses,
+    // so one buffer serves every ply
+    private final ThreadLocal<int[]> scores = ThreadLocal.withInitial(() -> new int[0]);
 
     public HeuristicMoveOrdering() {
-        this.evaluator = new HeuristicEvaluator();
+        this.evaluator = new HeuristicEvaluator(true);
     }
 
     @Override
-    public List<Position> orderMoves(GameState state, List<Position> moves) {
+    public List<Position> orderMoves(Board state, List<Position> moves) {
         List<ScoredMove> scoredMoves = new ArrayList<>();
+        // Solvers pass their own SearchBoard, which is restored after each probe
+        SearchBoard board = state instanceof SearchBoard ? (SearchBoard) state : new SearchBoard(state);
+        Player player = board.getCurrentPlayer();
 
         for (Position move : moves) {
-            GameState newState = state.makeMove(move);
-            int score = evaluator.evaluate(newState, state.getCurrentPlayer());
+            board.play(move);
+            int score = evaluator.evaluate(board, player);
+            board.undo();
             scoredMoves.add(new ScoredMove(move, score));
         }
 
@@ -33,6 +42,25 @@ public class HeuristicMoveOrdering implements MoveOrderingStrategy {
         return result;
     }
 
+    @Override
+    public void orderMoves(Board state, int[] moves, int count) {
+        SearchBoard board = state instanceof SearchBoard ? (SearchBoard) state : new SearchBoard(state);
+        Player player = board.getCurrentPlayer();
+        int[] scored = scores.get();
+        if (scored.length < count) {
+            scored = new int[moves.length];
+            scores.set(scored);
+        }
+
+        for (int i = 0; i < count; i++) {
+            board.play(moves[i]);
+            scored[i] = evaluator.evaluate(board, player);
+            board.undo();
+        }
+
+        MoveSorting.sortByScoreDescending(moves, scored, count);
+    }
+
     private static class ScoredMove {
         Position move;
         int score;
@@ -0,0 +1,166 @@
+package strategies;
+
+import model.Board;
+import model.Player;
+import model.Position;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Orders moves by what caused cutoffs earlier in the search instead of by
+// probing each move: the two most recent cutoff moves at the same ply
+// (killers) go first, then the rest by history score, which grows by
+// depth * depth for every cutoff a move causes anywhere in the tree. Ties
+// keep the order of the fallback strategy.
+//
+// Tables are kept per thread, so one instance can serve parallel searches.
+public class KillerHistoryMoveOrdering implements MoveOrderingStrategy {
+    private static final int NO_MOVE = -1;
+    private static final int KILLER_SCORE = Integer.MAX_VALUE;
+    // History scores are halved once any of them passes this, keeping them
+    // well clear of the killer scores
+    private static final int HISTORY_LIMIT = 1 << 24;
+
+    private final MoveOrderingStrategy fallback;
+    private final ThreadLocal<Tables> tables = ThreadLocal.withInitial(Tables::new);
+    private volatile int searchId;
+
+    public KillerHistoryMoveOrdering() {
+        this(new CenterFirstMoveOrdering());
+    }
+
+    public KillerHistoryMoveOrdering(MoveOrderingStrategy fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public List<Position> orderMoves(Board state, List<Position> moves) {
+        int m = state.getSize();
+        int[] buffer = new int[moves.size()];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = moves.get(i).row * m + moves.get(i).col;
+        }
+        // Without a ply there are no killers to apply, only history
+        orderMoves(state, buffer, buffer.length, -1);
+
+        List<Position> result = new ArrayList<>(buffer.length);
+        for (int move : buffer) {
+            result.add(new Position(move / m, move % m));
+        }
+        return result;
+    }
+
+    @Override
+    public void orderMoves(Board state, int[] moves, int count) {
+        orderMoves(state, moves, count, -1);
+    }
+
+    @Override
+    public void orderMoves(Board state, int[] moves, int count, int ply) {
+        fallback.orderMoves(state, moves, count, ply);
+        Tables table = tables(state);
+        int[] history = table.history[side(state)];
+        int killer1 = NO_MOVE;
+        int killer2 = NO_MOVE;
+        if (ply >= 0 && ply < table.killers.length) {
+            killer1 = table.killers[ply][0];
+            killer2 = table.killers[ply][1];
+        }
+
+        int[] scores = table.scores;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == killer1) {
+                scores[i] = KILLER_SCORE;
+            } else if (move == killer2) {
+                scores[i] = KILLER_SCORE - 1;
+            } else {
+                scores[i] = history[move];
+            }
+        }
+        MoveSorting.sortByScoreDescending(moves, scores, count);
+    }
+
+    // Killers are cleared and history is halved, so what was learnt from the
+    // previous position still counts but fades
+    @Override
+    public void onSearchStart() {
+        searchId++;
+    }
+
+    @Override
+    public void onCutoff(Board state, int move, int ply, int depth) {
+        Tables table = tables(state);
+        if (ply >= 0) {
+            if (ply >= table.killers.length) {
+                table.growKillers(ply + 1);
+            }
+            int[] killers = table.killers[ply];
+            if (killers[0] != move) {
+                killers[1] = killers[0];
+                killers[0] = move;
+            }
+        }
+
+        int[] history = table.history[side(state)];
+        history[move] += depth * depth;
+        if (history[move] > HISTORY_LIMIT) {
+            table.ageHistory();
+        }
+    }
+
+    private Tables tables(Board state) {
+        Tables table = tables.get();
+        int cells = state.getSize() * state.getSize();
+        if (table.cells != cells) {
+            table.reset(cells);
+            table.searchId = searchId;
+        } else if (table.searchId != searchId) {
+            table.clearKillers();
+            table.ageHistory();
+            table.searchId = searchId;
+        }
+        return table;
+    }
+
+    private static int side(Board state) {
+        return state.getCurrentPlayer() == Player.X ? 0 : 1;
+    }
+
+    private static class Tables {
+        int cells = -1;
+        int searchId;
+        int[][] killers = new int[0][];
+        int[][] history;
+        int[] scores;
+
+        void reset(int cells) {
+            this.cells = cells;
+            this.history = new int[2][cells];
+            this.scores = new int[cells];
+            this.killers = new int[0][];
+        }
+
+        void growKillers(int plies) {
+            int old = killers.length;
+            killers = Arrays.copyOf(killers, Math.max(plies, old * 2));
+            for (int ply = old; ply < killers.length; ply++) {
+                killers[ply] = new int[] {NO_MOVE, NO_MOVE};
+            }
+        }
+
+        void clearKillers() {
+            for (int[] plyKillers : killers) {
+                Arrays.fill(plyKillers, NO_MOVE);
+            }
+        }
+
+        void ageHistory() {
+            for (int[] sideHistory : history) {
+                for (int i = 0; i < sideHistory.length; i++) {
+                    sideHistory[i] >>= 1;
+                }
+            }
+        }
+    }
+}
@@ -1,9 +1,41 @@
 package strategies;
 
-import model.GameState;
+import model.Board;
 import model.Position;
 
+import java.util.ArrayList;
 import java.util.List;
 public interface MoveOrderingStrategy {
-    List<Position> orderMoves(GameState state, List<Position> moves);
-}
\ No newline at end of file
+    List<Position> orderMoves(Board state, List<Position> moves);
+
+    // Reorders moves[0..count) in place; moves are encoded as row * m + col.
+    // The solvers call this form, so implementations should override it to
+    // avoid the List round trip below.
+    default void orderMoves(Board state, int[] moves, int count) {
+        int m = state.getSize();
+        List<Position> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(new Position(moves[i] / m, moves[i] % m));
+        }
+        List<Position> ordered = orderMoves(state, list);
+        for (int i = 0; i < count; i++) {
+            Position move = ordered.get(i);
+            moves[i] = move.row * m + move.col;
+        }
+    }
+
+    // The form the solvers call inside the tree; ply is the distance from
+    // the root. Stateless strategies have no use for it.
+    default void orderMoves(Board state, int[] moves, int count, int ply) {
+        orderMoves(state, moves, count);
+    }
+
+    // Called by the solvers before each search, from the searching thread
+    default void onSearchStart() {
+    }
+
+    // Called when move, played from state at the given ply with depth plies
+    // still to search, caused a cutoff; state is the position before the move
+    default void onCutoff(Board state, int move, int ply, int depth) {
+    }
+}
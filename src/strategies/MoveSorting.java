@@ -0,0 +1,78 @@
+package strategies;
+
+import java.util.Arrays;
+
+// Stable in-place sorts over primitive move buffers. Short lists, often
+// nearly sorted already, use insertion sort, which beats a general sort and
+// never allocates. Longer ones (a 19x19 board has 361 moves) would make that
+// quadratic, so they go through Arrays.sort on packed primitive keys instead.
+final class MoveSorting {
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    // Packed (score, index) keys and a copy of the moves, per thread
+    private static final ThreadLocal<long[]> keyBuffers = ThreadLocal.withInitial(() -> new long[0]);
+    private static final ThreadLocal<int[]> moveBuffers = ThreadLocal.withInitial(() -> new int[0]);
+
+    private MoveSorting() {
+    }
+
+    static void sortAscending(int[] moves, int count) {
+        if (count > INSERTION_SORT_THRESHOLD) {
+            // Equal moves are indistinguishable, so stability is free
+            Arrays.sort(moves, 0, count);
+            return;
+        }
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int j = i - 1;
+            while (j >= 0 && moves[j] > move) {
+                moves[j + 1] = moves[j];
+                j--;
+            }
+            moves[j + 1] = move;
+        }
+    }
+
+    // Sorts moves by descending score, permuting scores alongside
+    static void sortByScoreDescending(int[] moves, int[] scores, int count) {
+        if (count > INSERTION_SORT_THRESHOLD) {
+            sortPackedByScoreDescending(moves, scores, count);
+            return;
+        }
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    // The high half of each key is ~score, which orders descending scores
+    // ascending without the overflow of -score; the low half is the original
+    // index, which keeps equal scores in their original order
+    private static void sortPackedByScoreDescending(int[] moves, int[] scores, int count) {
+        long[] keys = keyBuffers.get();
+        int[] original = moveBuffers.get();
+        if (keys.length < count) {
+            keys = new long[moves.length];
+            original = new int[moves.length];
+            keyBuffers.set(keys);
+            moveBuffers.set(original);
+        }
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) ~scores[i] << 32) | i;
+        }
+        System.arraycopy(moves, 0, original, 0, count);
+        Arrays.sort(keys, 0, count);
+        for (int i = 0; i < count; i++) {
+            moves[i] = original[(int) keys[i]];
+            scores[i] = ~(int) (keys[i] >> 32);
+        }
+    }
+}
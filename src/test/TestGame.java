@@ -1,21 +1,98 @@
 package test;
 
+import arena.Arena;
+import arena.ArenaReport;
+import arena.Contestant;
+import arena.GameResult;
+import arena.ResultWriter;
 import algorithms.AlphaBetaSolver;
 import algorithms.DepthLimitedSolver;
 import algorithms.MinimaxSolver;
+import algorithms.OpeningBook;
+import algorithms.OpeningBookBuilder;
+import algorithms.PrincipalVariationSolver;
+import algorithms.RetrogradeSolver;
+import algorithms.SearchStats;
+import algorithms.Solver;
+import algorithms.ProofNumberSolver;
+import algorithms.ThreatSpaceSolver;
 import engine.GameEngine;
+import engine.HeuristicEvaluator;
+import engine.PositionBatch;
 import model.GameState;
+import model.LineScan;
 import model.Player;
 import model.Position;
+import model.SearchBoard;
+import model.SparseBoard;
+import model.Symmetry;
+import monitoring.SearchMetrics;
+import server.LoadTestClient;
+import server.SessionManager;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import strategies.CenterFirstMoveOrdering;
+import strategies.DefaultMoveOrdering;
+import strategies.DeltaMoveOrdering;
 import strategies.HeuristicMoveOrdering;
+import strategies.KillerHistoryMoveOrdering;
+import strategies.MoveOrderingStrategy;
 
 public class TestGame {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
         testInitialState();
         testWinDetection();
         testMinimaxEquivalence();
         testAlphaBetaPruning();
         testLargerBoard();
+        testLargeBoardWinDetection();
+        testSearchBoardPlayUndo();
+        testTranspositionTable();
+        testTableAcrossRules();
+        testIncrementalEvaluator();
+        testSymmetryCanonicalKeys();
+        testPrimitiveMoveOrdering();
+        testTimeBudgetedSearch();
+        testParallelRootSearch();
+        testRootSearchForO();
+        testLazySmpSearch();
+        testPrincipalVariationSearch();
+        testKillerHistoryOrdering();
+        testDeltaMoveOrdering();
+        testCandidateGeneration();
+        testThreatSpaceSearch();
+        testProofNumberSearch();
+        testOpeningBook();
+        testRetrogradeSolver();
+        testSearchStats();
+        testSearchMonitoring();
+        testBatchEvaluation();
+        testLineScans();
+        testSessionManager();
+        testArena();
+        testSparseBoard();
         System.out.println("All tests passed!");
     }
 
@@ -66,7 +143,14 @@ public class TestGame {
         Position move1 = withOrdering.findBestMove(state);
         Position move2 = withoutOrdering.findBestMove(state);
 
-        assertEquals(move1, move2, "Moves should be equal with and without ordering");
+        // Ordering may pick another move among equally good ones, so compare
+        // the values the moves keep rather than the moves themselves
+        RetrogradeSolver values = new RetrogradeSolver(3, 3);
+        values.solve();
+        assertEquals(values.getValue(state.makeMove(move2)), values.getValue(state.makeMove(move1)),
+                "Moves should be worth the same with and without ordering");
+        assertEquals(-values.getValue(state), values.getValue(state.makeMove(move1)),
+                "Ordered move should keep the game's value");
         assertTrue(withOrdering.getNodesEvaluated() <= withoutOrdering.getNodesEvaluated(),
                 "Ordering should reduce node count");
         System.out.println(" testAlphaBetaPruning passed");
@@ -85,6 +169,1017 @@ public class TestGame {
         System.out.println(" testLargerBoard passed - Move: " + move);
     }
 
+    public static void testLargeBoardWinDetection() {
+        // 9x9 spans two bitboard words; the anti-diagonal crosses the word boundary
+        GameState state = GameEngine.initialState(9, 5);
+        int[][] xMoves = {{2, 8}, {3, 7}, {4, 6}, {5, 5}, {6, 4}};
+        int[][] oMoves = {{0, 0}, {0, 1}, {0, 2}, {0, 3}};
+
+        for (int i = 0; i < xMoves.length; i++) {
+            assertFalse(state.isTerminal(), "Game should not end before the fifth stone");
+            state = state.makeMove(new Position(xMoves[i][0], xMoves[i][1]));
+            if (i < oMoves.length) {
+                state = state.makeMove(new Position(oMoves[i][0], oMoves[i][1]));
+            }
+        }
+
+        assertTrue(state.isTerminal(), "Anti-diagonal five should end the game");
+        assertEquals(Player.X, state.getWinner(), "X should win on the anti-diagonal");
+
+        // A row ending at the right edge must not continue into the next row
+        state = GameEngine.initialState(4, 3);
+        state = state.makeMove(new Position(0, 2));
+        state = state.makeMove(new Position(3, 3));
+        state = state.makeMove(new Position(0, 3));
+        state = state.makeMove(new Position(3, 2));
+        state = state.makeMove(new Position(1, 0));
+        assertFalse(state.isTerminal(), "Stones split across rows should not win");
+        System.out.println(" testLargeBoardWinDetection passed");
+    }
+
+    public static void testSearchBoardPlayUndo() {
+        GameState state = GameEngine.initialState(3, 3);
+        state = state.makeMove(new Position(0, 0));
+        state = state.makeMove(new Position(1, 0));
+        state = state.makeMove(new Position(0, 1));
+        state = state.makeMove(new Position(1, 1));
+
+        SearchBoard board = new SearchBoard(state);
+        board.play(new Position(0, 2));
+        assertTrue(board.isTerminal(), "Winning move should end the search board game");
+        assertEquals(Player.X, board.getWinner(), "X should win on the search board");
+
+        board.undo();
+        assertFalse(board.isTerminal(), "Undo should clear the terminal flag");
+        assertTrue(board.getWinner() == null, "Undo should clear the winner");
+        assertEquals(Player.X, board.getCurrentPlayer(), "Undo should restore the side to move");
+        assertTrue(board.isEmpty(0, 2), "Undo should empty the cell");
+        assertEquals(state.toString(), board.snapshot().toString(), "Undo should restore the position");
+        System.out.println(" testSearchBoardPlayUndo passed");
+    }
+
+    public static void testTranspositionTable() {
+        GameState state = GameEngine.initialState(3, 3);
+        GameState transposed = state.makeMove(new Position(0, 0)).makeMove(new Position(1, 1))
+                .makeMove(new Position(2, 2));
+        GameState direct = state.makeMove(new Position(2, 2)).makeMove(new Position(1, 1))
+                .makeMove(new Position(0, 0));
+        assertEquals(direct.getZobristKey(), transposed.getZobristKey(),
+                "Transposed move orders should hash to the same key");
+
+        AlphaBetaSolver withTable = new AlphaBetaSolver();
+        AlphaBetaSolver withoutTable = new AlphaBetaSolver(new DefaultMoveOrdering(), null);
+
+        Position move1 = withTable.findBestMove(state);
+        Position move2 = withoutTable.findBestMove(state);
+
+        assertEquals(move2, move1, "Transposition table should not change the chosen move");
+        assertTrue(withTable.getNodesEvaluated() < withoutTable.getNodesEvaluated(),
+                "Transposition table should reduce node count");
+        System.out.println(" testTranspositionTable passed");
+        System.out.println("   Without table nodes: " + withoutTable.getNodesEvaluated());
+        System.out.println("   With table nodes: " + withTable.getNodesEvaluated());
+    }
+
+    public static void testTableAcrossRules() {
+        // One solver reused across k and candidate distance must answer as a
+        // fresh one: entries searched under other rules do not apply
+        AlphaBetaSolver reused = new AlphaBetaSolver();
+        Random random = new Random(3);
+        for (int i = 0; i < 30; i++) {
+            int[] cells = new int[1 + random.nextInt(3)];
+            for (int k : new int[] {3, 2}) {
+                GameState position = GameEngine.initialState(3, k);
+                for (int c = 0; c < cells.length; c++) {
+                    if (k == 3) {
+                        List<Position> moves = position.getLegalMoves();
+                        Position move = moves.get(random.nextInt(moves.size()));
+                        cells[c] = move.row * 3 + move.col;
+                    }
+                    position = position.makeMove(new Position(cells[c] / 3, cells[c] % 3));
+                }
+                if (position.isTerminal()) {
+                    continue;
+                }
+                assertEquals(new AlphaBetaSolver().findBestMove(position), reused.findBestMove(position),
+                        "Reused solver should match a fresh one at k = " + k);
+            }
+        }
+
+        GameState position = GameEngine.initialState(4, 3).makeMove(new Position(1, 1))
+                .makeMove(new Position(1, 2)).makeMove(new Position(2, 1));
+        for (int distance : new int[] {1, 0, 1}) {
+            AlphaBetaSolver fresh = new AlphaBetaSolver();
+            fresh.setCandidateDistance(distance);
+            reused.setCandidateDistance(distance);
+            assertEquals(fresh.findBestMove(position), reused.findBestMove(position),
+                    "Reused solver should match a fresh one at distance " + distance);
+        }
+        System.out.println(" testTableAcrossRules passed");
+    }
+
+    public static void testIncrementalEvaluator() {
+        HeuristicEvaluator scanning = new HeuristicEvaluator();
+        HeuristicEvaluator incremental = new HeuristicEvaluator(true);
+        SearchBoard board = new SearchBoard(GameEngine.initialState(7, 5));
+        int[][] moves = {{3, 3}, {2, 2}, {3, 4}, {4, 4}, {3, 2}, {0, 6}, {2, 3}};
+
+        for (int[] move : moves) {
+            board.play(new Position(move[0], move[1]));
+            assertEquals(scanning.evaluate(board, Player.X), incremental.evaluate(board, Player.X),
+                    "Incremental evaluation should match a full scan after play");
+        }
+        for (int i = 0; i < 3; i++) {
+            board.undo();
+            assertEquals(scanning.evaluate(board, Player.O), incremental.evaluate(board, Player.O),
+                    "Incremental evaluation should match a full scan after undo");
+        }
+        System.out.println(" testIncrementalEvaluator passed");
+    }
+
+    public static void testSymmetryCanonicalKeys() {
+        GameState corner = GameEngine.initialState(4, 3).makeMove(new Position(0, 0));
+        GameState rotated = GameEngine.initialState(4, 3).makeMove(new Position(0, 3));
+        assertFalse(corner.getZobristKey() == rotated.getZobristKey(), "Raw keys should differ");
+        assertEquals(corner.getCanonicalKey(), rotated.getCanonicalKey(),
+                "Rotated positions should share a canonical key");
+
+        // Replaying the moves through the canonical transform reproduces the canonical key
+        Position[] moves = {new Position(0, 1), new Position(2, 3), new Position(3, 0)};
+        GameState state = GameEngine.initialState(4, 3);
+        for (Position move : moves) {
+            state = state.makeMove(move);
+        }
+        int transform = state.getCanonicalTransform();
+        GameState canonical = GameEngine.initialState(4, 3);
+        for (Position move : moves) {
+            canonical = canonical.makeMove(Symmetry.apply(transform, move, 4));
+        }
+        assertEquals(state.getCanonicalKey(), canonical.getZobristKey(),
+                "Canonical key should hash the transformed board");
+        Position mappedBack = Symmetry.apply(Symmetry.inverse(transform), Symmetry.apply(transform, moves[0], 4), 4);
+        assertEquals(moves[0], mappedBack, "Inverse transform should map moves back");
+        System.out.println(" testSymmetryCanonicalKeys passed");
+    }
+
+    public static void testPrimitiveMoveOrdering() {
+        GameState state = GameEngine.initialState(5, 4);
+        state = state.makeMove(new Position(2, 2));
+        state = state.makeMove(new Position(1, 3));
+        state = state.makeMove(new Position(2, 1));
+
+        SearchBoard board = new SearchBoard(state);
+        int[] moves = new int[25];
+        int count = board.generateMoves(moves);
+        List<Position> legal = state.getLegalMoves();
+        assertEquals(legal.size(), count, "Primitive generation should find every legal move");
+
+        assertSameOrdering(state, board, moves, count);
+
+        // 19x19 lists are long enough to leave insertion sort, and must still
+        // sort stably; generated moves are reversed to give the sort work
+        GameState large = GameEngine.initialState(19, 5).makeMove(new Position(9, 9))
+                .makeMove(new Position(3, 15)).makeMove(new Position(10, 8));
+        SearchBoard largeBoard = new SearchBoard(large);
+        int[] largeMoves = new int[361];
+        int largeCount = largeBoard.generateMoves(largeMoves);
+        for (int i = 0; i < largeCount / 2; i++) {
+            int swap = largeMoves[i];
+            largeMoves[i] = largeMoves[largeCount - 1 - i];
+            largeMoves[largeCount - 1 - i] = swap;
+        }
+        assertSameOrdering(large, largeBoard, largeMoves, largeCount);
+        System.out.println(" testPrimitiveMoveOrdering passed");
+    }
+
+    private static void assertSameOrdering(GameState state, SearchBoard board, int[] moves, int count) {
+        int m = state.getSize();
+        List<Position> legal = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            legal.add(new Position(moves[i] / m, moves[i] % m));
+        }
+        MoveOrderingStrategy[] strategies = {
+                new DefaultMoveOrdering(), new CenterFirstMoveOrdering(), new HeuristicMoveOrdering()
+        };
+        for (MoveOrderingStrategy strategy : strategies) {
+            List<Position> ordered = strategy.orderMoves(state, legal);
+            int[] buffer = moves.clone();
+            strategy.orderMoves(board, buffer, count);
+            for (int i = 0; i < count; i++) {
+                Position move = ordered.get(i);
+                assertEquals(move.row * m + move.col, buffer[i],
+                        strategy.getClass().getSimpleName() + " should order both forms identically");
+            }
+        }
+    }
+
+    public static void testTimeBudgetedSearch() {
+        GameState state = GameEngine.initialState(5, 4);
+        DepthLimitedSolver solver = new DepthLimitedSolver(3);
+
+        long start = System.currentTimeMillis();
+        Position move = solver.findBestMove(state, 50);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertNotNull(move, "Timed search should return a move");
+        assertTrue(state.getLegalMoves().contains(move), "Timed search move should be legal");
+        assertTrue(solver.getDepthReached() >= 0, "Timed search should complete at least one iteration");
+        assertTrue(elapsed < 1000, "Timed search should stop near its budget");
+
+        // With a budget large enough to finish, 3x3 deepens to the end of the game
+        DepthLimitedSolver small = new DepthLimitedSolver(3);
+        small.findBestMove(GameEngine.initialState(3, 3), 10_000);
+        assertEquals(8, small.getDepthReached(), "3x3 should be searched to the last empty cell");
+        System.out.println(" testTimeBudgetedSearch passed - Move: " + move + ", Depth: " + solver.getDepthReached());
+    }
+
+    public static void testParallelRootSearch() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            GameState state = GameEngine.initialState(4, 3).makeMove(new Position(1, 1));
+            DepthLimitedSolver sequential = new DepthLimitedSolver(3);
+            DepthLimitedSolver parallel = new DepthLimitedSolver(3);
+            assertEquals(sequential.findBestMove(state), parallel.findBestMoveParallel(state, pool),
+                    "Parallel depth-limited search should match the sequential move");
+            assertTrue(parallel.getNodesEvaluated() > 0, "Parallel search should count nodes");
+
+            GameState board3x3 = GameEngine.initialState(3, 3);
+            AlphaBetaSolver alphaBeta = new AlphaBetaSolver(new HeuristicMoveOrdering());
+            Position expected = new AlphaBetaSolver(new HeuristicMoveOrdering()).findBestMove(board3x3);
+            assertEquals(expected, alphaBeta.findBestMoveParallel(board3x3, pool),
+                    "Parallel Alpha-Beta should match the sequential move");
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println(" testParallelRootSearch passed");
+    }
+
+    public static void testRootSearchForO() {
+        // O to move must block at (0, 2), as every other move loses
+        GameState state = GameEngine.initialState(3, 3);
+        for (Position move : new Position[] {new Position(0, 0), new Position(1, 1), new Position(0, 1)}) {
+            state = state.makeMove(move);
+        }
+        Position block = new Position(0, 2);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(block, new MinimaxSolver().findBestMove(state), "Minimax should block as O");
+            assertEquals(block, new AlphaBetaSolver().findBestMove(state), "Alpha-Beta should block as O");
+            assertEquals(block, new AlphaBetaSolver().findBestMoveParallel(state, pool),
+                    "Parallel Alpha-Beta should block as O");
+
+            // The parallel search returns the sequential move for either side
+            Random random = new Random(8);
+            for (int i = 0; i < 50; i++) {
+                GameState position = GameEngine.initialState(3, 3);
+                int plies = 1 + random.nextInt(5);
+                for (int ply = 0; ply < plies && !position.isTerminal(); ply++) {
+                    List<Position> moves = position.getLegalMoves();
+                    position = position.makeMove(moves.get(random.nextInt(moves.size())));
+                }
+                if (position.isTerminal()) {
+                    continue;
+                }
+                assertEquals(new AlphaBetaSolver().findBestMove(position),
+                        new AlphaBetaSolver().findBestMoveParallel(position, pool),
+                        "Parallel Alpha-Beta should match the sequential move for " + position.getCurrentPlayer());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println(" testRootSearchForO passed");
+    }
+
+    public static void testLazySmpSearch() {
+        GameState state = GameEngine.initialState(5, 4);
+        DepthLimitedSolver solver = new DepthLimitedSolver(3);
+
+        Position move = solver.findBestMoveLazySmp(state, 3);
+        assertTrue(state.getLegalMoves().contains(move), "Lazy SMP move should be legal");
+        assertEquals(3, solver.getDepthReached(), "Main search should reach the configured depth");
+
+        long[] threadNodes = solver.getThreadNodes();
+        assertEquals(3, threadNodes.length, "Should report nodes for every thread");
+        long total = 0;
+        for (long nodes : threadNodes) {
+            total += nodes;
+        }
+        assertEquals((long) solver.getNodesEvaluated(), total, "Thread nodes should add up to the total");
+        System.out.println(" testLazySmpSearch passed - Move: " + move + ", Nodes: " + total);
+    }
+
+    public static void testPrincipalVariationSearch() {
+        GameState state = GameEngine.initialState(5, 4).makeMove(new Position(2, 2));
+        DepthLimitedSolver fullWindow = new DepthLimitedSolver(3);
+        PrincipalVariationSolver pvs = new PrincipalVariationSolver(3);
+
+        Position expected = fullWindow.findBestMove(state);
+        Position move = pvs.findBestMove(state);
+        assertEquals(expected, move, "PVS should agree with the full-window search");
+        assertTrue(pvs.getNodesEvaluated() < fullWindow.getNodesEvaluated(),
+                "PVS should search fewer nodes than the full-window search");
+
+        List<Position> line = pvs.getPrincipalVariation();
+        assertEquals(move, line.get(0), "Principal variation should start with the chosen move");
+        GameState replay = state;
+        for (Position step : line) {
+            assertTrue(replay.getLegalMoves().contains(step), "Principal variation should be playable");
+            replay = replay.makeMove(step);
+        }
+        System.out.println(" testPrincipalVariationSearch passed - PV: " + line);
+        System.out.println("   Full-window nodes: " + fullWindow.getNodesEvaluated());
+        System.out.println("   PVS nodes: " + pvs.getNodesEvaluated());
+    }
+
+    public static void testKillerHistoryOrdering() {
+        GameState state = GameEngine.initialState(5, 4).makeMove(new Position(2, 2));
+
+        PrincipalVariationSolver reference = new PrincipalVariationSolver(3);
+        PrincipalVariationSolver withHistory = new PrincipalVariationSolver(3, new HeuristicEvaluator(true),
+                new KillerHistoryMoveOrdering());
+        reference.findBestMove(state);
+        withHistory.findBestMove(state);
+        assertEquals(reference.getScore(), withHistory.getScore(), "Ordering should not change the search score");
+
+        DepthLimitedSolver unordered = new DepthLimitedSolver(3);
+        DepthLimitedSolver ordered = new DepthLimitedSolver(3, new HeuristicEvaluator(true),
+                new KillerHistoryMoveOrdering());
+        unordered.findBestMove(state);
+        Position move = ordered.findBestMove(state);
+        assertTrue(state.getLegalMoves().contains(move), "Killer/history search move should be legal");
+        assertTrue(ordered.getNodesEvaluated() < unordered.getNodesEvaluated(),
+                "Killer and history ordering should reduce node count");
+        System.out.println(" testKillerHistoryOrdering passed");
+        System.out.println("   Default ordering nodes: " + unordered.getNodesEvaluated());
+        System.out.println("   Killer/history nodes: " + ordered.getNodesEvaluated());
+    }
+
+    public static void testDeltaMoveOrdering() {
+        SearchBoard board = new SearchBoard(GameEngine.initialState(7, 5));
+        board.getWindowCounts().getMoveGain(0, Player.X);
+        int[][] moves = {{3, 3}, {2, 2}, {3, 4}, {4, 4}, {0, 6}, {2, 3}, {5, 1}};
+        for (int[] move : moves) {
+            board.play(new Position(move[0], move[1]));
+        }
+        board.undo();
+
+        // Gains kept up to date through play/undo match gains built from scratch
+        SearchBoard fresh = new SearchBoard(board.snapshot());
+        for (int cell = 0; cell < 49; cell++) {
+            for (Player player : Player.values()) {
+                assertEquals(fresh.getWindowCounts().getMoveGain(cell, player),
+                        board.getWindowCounts().getMoveGain(cell, player),
+                        "Incremental move gains should match a rebuild");
+            }
+        }
+
+        // No move wins here, so the delta order is the probing order
+        int[] probed = new int[49];
+        int count = board.generateMoves(probed);
+        int[] delta = probed.clone();
+        new HeuristicMoveOrdering().orderMoves(board, probed, count);
+        new DeltaMoveOrdering().orderMoves(board, delta, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(probed[i], delta[i], "Delta ordering should match heuristic ordering");
+        }
+        System.out.println(" testDeltaMoveOrdering passed");
+    }
+
+    public static void testCandidateGeneration() {
+        GameState empty = GameEngine.initialState(15, 5);
+        assertEquals(1, empty.getCandidateMoves(2).size(), "Empty board should offer only the opening move");
+        assertEquals(new Position(7, 7), empty.getCandidateMoves(2).get(0), "Opening move should be the center");
+
+        // Stones on the edge and across bitboard words
+        GameState state = empty.makeMove(new Position(7, 7)).makeMove(new Position(0, 14))
+                .makeMove(new Position(8, 8)).makeMove(new Position(14, 0));
+        List<Position> candidates = state.getCandidateMoves(1);
+        assertEquals(3 + 3 + 14 - 2, candidates.size(), "Should offer the empty cells next to a stone");
+        assertTrue(candidates.contains(new Position(1, 13)), "Corner neighbour should be a candidate");
+        assertFalse(candidates.contains(new Position(7, 10)), "Distant cell should not be a candidate");
+
+        SearchBoard board = new SearchBoard(empty);
+        board.setCandidateDistance(1);
+        board.play(new Position(7, 7));
+        board.play(new Position(0, 14));
+        board.play(new Position(8, 8));
+        board.play(new Position(3, 3));
+        board.undo();
+        board.play(new Position(14, 0));
+        int[] moves = new int[225];
+        int count = board.generateMoves(moves);
+        assertEquals(candidates.size(), count, "Incremental candidates should match the dilated board");
+        for (int i = 0; i < count; i++) {
+            assertEquals(candidates.get(i), new Position(moves[i] / 15, moves[i] % 15),
+                    "Incremental candidates should be in row-major order");
+        }
+
+        DepthLimitedSolver solver = new DepthLimitedSolver(2);
+        solver.setCandidateDistance(1);
+        Position move = solver.findBestMove(state);
+        assertTrue(candidates.contains(move), "Restricted search should play next to a stone");
+        System.out.println(" testCandidateGeneration passed - Move: " + move);
+    }
+
+    public static void testThreatSpaceSearch() {
+        // X's three on row 2 and three on column 5 meet at (2, 5): playing
+        // there makes two fours at once, which O cannot both block
+        GameState state = GameEngine.initialState(9, 5);
+        int[][] xMoves = {{2, 2}, {2, 3}, {2, 4}, {3, 5}, {4, 5}, {5, 5}};
+        int[][] oMoves = {{2, 1}, {6, 5}, {8, 0}, {8, 8}, {0, 8}, {7, 1}};
+        for (int i = 0; i < xMoves.length; i++) {
+            state = state.makeMove(new Position(xMoves[i][0], xMoves[i][1]));
+            state = state.makeMove(new Position(oMoves[i][0], oMoves[i][1]));
+        }
+
+        ThreatSpaceSolver threats = new ThreatSpaceSolver();
+        Position win = threats.findWinningMove(state);
+        assertEquals(new Position(2, 5), win, "Threat search should find the double four");
+        assertTrue(threats.isVcf(), "A win by fours should be reported as VCF");
+        assertEquals(win, threats.getWinningLine().get(0), "Winning line should start with the winning move");
+
+        // After a quiet X move, O has no forcing win of its own
+        GameState defending = state.makeMove(new Position(0, 0));
+        assertTrue(threats.findWinningMove(defending) == null, "O should have no forced win");
+
+        // With nothing to threaten, the VCT adds only its root visit: the
+        // failed root VCF is not searched a second time
+        GameState quiet = GameEngine.initialState(9, 5).makeMove(new Position(4, 4));
+        ThreatSpaceSolver foursOnly = new ThreatSpaceSolver(12, 0, 20_000);
+        assertTrue(threats.findWinningMove(quiet) == null && foursOnly.findWinningMove(quiet) == null,
+                "A single stone should give no forced win");
+        assertEquals(foursOnly.getStats().getNodes() + 1, threats.getStats().getNodes(),
+                "The root VCF should be searched once");
+
+        DepthLimitedSolver solver = new DepthLimitedSolver(1);
+        solver.setThreatSearch(threats);
+        assertEquals(win, solver.findBestMove(state), "Depth-limited search should play the forced win");
+        assertEquals(0, solver.getDepthReached(), "A VCF win should be played without searching");
+
+        // Two X twos crossing near (4, 5): the threat search finds only a VCT
+        // line, which is not a proof, so the full-width search still runs
+        GameState threes = GameEngine.initialState(9, 5);
+        int[][] xTwos = {{4, 3}, {4, 4}, {3, 5}, {2, 5}};
+        int[][] oCorners = {{0, 0}, {0, 8}, {8, 0}, {8, 8}};
+        for (int i = 0; i < xTwos.length; i++) {
+            threes = threes.makeMove(new Position(xTwos[i][0], xTwos[i][1]));
+            threes = threes.makeMove(new Position(oCorners[i][0], oCorners[i][1]));
+        }
+        assertTrue(threats.findWinningMove(threes) != null && !threats.isVcf(), "Threat search should find a VCT");
+        long threatNodes = threats.getStats().getNodes();
+        solver.findBestMove(threes);
+        assertEquals(1, solver.getDepthReached(), "A VCT win should still be searched");
+        assertTrue(solver.getStats().getNodes() > threatNodes, "The search should add its own nodes");
+        System.out.println(" testThreatSpaceSearch passed - Nodes: " + threats.getNodesEvaluated());
+    }
+
+    public static void testProofNumberSearch() {
+        ProofNumberSolver solver = new ProofNumberSolver();
+        assertEquals(ProofNumberSolver.Result.DRAW, solver.solve(GameEngine.initialState(3, 3)),
+                "3x3 should be proven a draw");
+        assertTrue(solver.getProofSize() > 0, "A proof should have a size");
+
+        GameState state = GameEngine.initialState(4, 3);
+        assertEquals(ProofNumberSolver.Result.WIN, solver.solve(state), "4x4 k=3 should be a first-player win");
+        Position move = solver.getBestMove();
+        assertEquals(ProofNumberSolver.Result.LOSS, solver.solve(state.makeMove(move)),
+                "The winning move should leave O lost");
+
+        assertEquals(ProofNumberSolver.Result.DRAW, solver.solve(GameEngine.initialState(4, 4)),
+                "4x4 k=4 should be proven a draw");
+
+        // A small table still proves it, just with more re-search; a node
+        // limit too low for the proof gives up
+        ProofNumberSolver small = new ProofNumberSolver(1 << 12, 10_000_000, 0);
+        assertEquals(ProofNumberSolver.Result.DRAW, small.solve(GameEngine.initialState(4, 4)),
+                "A small table should still prove the draw");
+        // A 64-entry table drops most proven children before the search
+        // ends; the winning move is recorded as the root is proven
+        ProofNumberSolver tiny = new ProofNumberSolver(1 << 6, 10_000_000, 0);
+        assertEquals(ProofNumberSolver.Result.WIN, tiny.solve(state), "A tiny table should still prove the win");
+        RetrogradeSolver exact = new RetrogradeSolver(4, 3);
+        exact.solve();
+        assertEquals(RetrogradeSolver.LOSS, exact.getValue(state.makeMove(tiny.getBestMove())),
+                "The move from a tiny table should still win");
+        ProofNumberSolver limited = new ProofNumberSolver(1 << 12, 100, 0);
+        assertEquals(ProofNumberSolver.Result.UNKNOWN, limited.solve(GameEngine.initialState(4, 4)),
+                "Hitting the node limit should give no result");
+        assertTrue(limited.getBestMove() == null, "No move should be reported without a result");
+        System.out.println(" testProofNumberSearch passed - Nodes: " + solver.getNodesEvaluated()
+                + ", proof size: " + solver.getProofSize());
+    }
+
+    public static void testOpeningBook() throws IOException {
+        Path path = Files.createTempFile("book", ".bin");
+        try {
+            OpeningBookBuilder builder = new OpeningBookBuilder(3, 3, 4);
+            int entries = builder.build(path);
+            assertEquals(builder.getPositionCount(), entries + builder.getLostCount(),
+                    "Every 3x3 opening should be solved");
+            assertTrue(builder.getLostCount() > 0, "Lost openings should be left out");
+
+            OpeningBook book = OpeningBook.open(path);
+            assertEquals(entries, book.getEntryCount(), "Book should hold every entry written");
+            GameState empty = GameEngine.initialState(3, 3);
+            assertEquals(OpeningBook.DRAW, book.getValue(empty), "3x3 should be a draw");
+
+            // A corner opening and its mirror image share one entry, and the
+            // move comes back in each position's own frame
+            GameState corner = empty.makeMove(new Position(0, 0));
+            GameState mirrored = empty.makeMove(new Position(0, 2));
+            Position reply = book.getBestMove(corner);
+            Position mirroredReply = book.getBestMove(mirrored);
+            assertTrue(corner.isEmpty(reply.row, reply.col), "Book move should be legal");
+            assertEquals(new Position(reply.row, 2 - reply.col), mirroredReply,
+                    "Mirrored position should get the mirrored move");
+            assertEquals(OpeningBook.DRAW, book.getValue(corner.makeMove(reply)),
+                    "The book reply should keep the draw");
+
+            // Edge reply to a corner loses for O
+            GameState edge = corner.makeMove(new Position(0, 1));
+            assertEquals(OpeningBook.WIN, book.getValue(edge), "X should win after an edge reply");
+            GameState lost = edge.makeMove(book.getBestMove(edge));
+            assertEquals(OpeningBook.NOT_FOUND, book.getValue(lost), "Lost positions should not be booked");
+            assertEquals(OpeningBook.NOT_FOUND, book.getValue(GameEngine.initialState(4, 3)),
+                    "Other board sizes should not be found");
+
+            AlphaBetaSolver solver = new AlphaBetaSolver();
+            solver.setOpeningBook(book);
+            assertEquals(book.getBestMove(empty), solver.findBestMove(empty), "Solver should play the book move");
+            assertEquals(0, solver.getNodesEvaluated(), "A book move needs no search");
+            solver.findBestMove(lost);
+            assertTrue(solver.getNodesEvaluated() > 0, "A lost position should be searched");
+            System.out.println(" testOpeningBook passed - Entries: " + entries);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    public static void testRetrogradeSolver() {
+        RetrogradeSolver table = new RetrogradeSolver(3, 3);
+        table.solve();
+        GameState empty = GameEngine.initialState(3, 3);
+        assertEquals(RetrogradeSolver.DRAW, table.getValue(empty), "3x3 should be a draw");
+
+        // Agrees with the proof-number solver on the openings it proves
+        ProofNumberSolver proof = new ProofNumberSolver(1 << 12, 1_000_000, 0);
+        GameState edge = empty.makeMove(new Position(0, 0)).makeMove(new Position(0, 1));
+        assertEquals(RetrogradeSolver.WIN, table.getValue(edge), "X should win after an edge reply");
+        assertEquals(ProofNumberSolver.Result.WIN, proof.solve(edge), "Both solvers should agree");
+
+        // Takes an immediate win over any other winning move
+        GameState open = edge.makeMove(new Position(1, 1)).makeMove(new Position(2, 1));
+        assertEquals(new Position(2, 2), table.findBestMove(open), "Should complete the diagonal");
+
+        RetrogradeSolver fourByFour = new RetrogradeSolver(4, 3);
+        fourByFour.solve();
+        GameState fourEmpty = GameEngine.initialState(4, 3);
+        assertEquals(RetrogradeSolver.WIN, fourByFour.getValue(fourEmpty), "4x4 k=3 should be a first-player win");
+        GameState after = fourEmpty.makeMove(fourByFour.findBestMove(fourEmpty));
+        assertEquals(RetrogradeSolver.LOSS, fourByFour.getValue(after), "The chosen move should keep the win");
+        assertTrue(fourByFour.getTableBytes() < 16 << 20, "4x4 table should stay under 16 MB");
+
+        try {
+            new RetrogradeSolver(5, 4);
+            throw new AssertionError("5x5 should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // Too many cells for a base-3 table
+        }
+        System.out.println(" testRetrogradeSolver passed - 4x4 table: " + fourByFour.getTableBytes() + " bytes");
+    }
+
+    public static void testSearchStats() {
+        GameState state = GameEngine.initialState(4, 3).makeMove(new Position(1, 1));
+        DepthLimitedSolver solver = new DepthLimitedSolver(3);
+        solver.findBestMove(state);
+        SearchStats stats = solver.getStats();
+        assertEquals((long) solver.getNodesEvaluated(), stats.getNodes(), "Stats should count the same nodes");
+        assertTrue(stats.getMaxDepth() >= 3, "Stats should reach the search depth");
+        assertTrue(stats.getCutoffs() > 0, "Alpha-beta should cut off");
+        long perPly = 0;
+        for (long cutoffs : stats.getCutoffsPerPly()) {
+            perPly += cutoffs;
+        }
+        assertEquals(stats.getCutoffs(), perPly, "Cutoffs per ply should add up");
+        assertTrue(stats.getFirstMoveCutoffRate() > 0 && stats.getFirstMoveCutoffRate() <= 1,
+                "First-move cutoff rate should be a fraction");
+        assertTrue(stats.getEffectiveBranchingFactor() > 1, "Branching factor should exceed 1");
+        assertTrue(stats.getTableProbes() >= stats.getTableHits() && stats.getTableHits() > 0,
+                "Table should be hit");
+        assertTrue(stats.getEvaluatorCalls() > 0, "Leaves should be evaluated");
+        assertTrue(stats.getElapsedNanos() > 0, "Search should take time");
+
+        // Per-task counters are merged into one total
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            AlphaBetaSolver alphaBeta = new AlphaBetaSolver();
+            alphaBeta.findBestMoveParallel(GameEngine.initialState(3, 3), pool);
+            assertTrue(alphaBeta.getStats().getNodes() > 0, "Parallel search should count nodes");
+            assertTrue(alphaBeta.getStats().getTableProbes() > 0, "Parallel search should count probes");
+        } finally {
+            pool.shutdown();
+        }
+
+        Solver[] solvers = {new MinimaxSolver(), new AlphaBetaSolver(), new PrincipalVariationSolver(4)};
+        for (Solver each : solvers) {
+            each.findBestMove(GameEngine.initialState(3, 3));
+            assertTrue(each.getStats().getNodes() > 0, each.getClass().getSimpleName() + " should report nodes");
+        }
+        System.out.println(" testSearchStats passed - " + stats);
+    }
+
+    public static void testSearchMonitoring() throws Exception {
+        Path path = Files.createTempFile("search", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("tictactoe.SearchStart");
+            recording.enable("tictactoe.SearchEnd");
+            recording.enable("tictactoe.IterationComplete");
+            recording.start();
+            GameState state = GameEngine.initialState(4, 3);
+            new DepthLimitedSolver(4).findBestMove(state, 60_000);
+            new AlphaBetaSolver().findBestMove(GameEngine.initialState(3, 3));
+            new MinimaxSolver().findBestMove(GameEngine.initialState(3, 3).makeMove(new Position(1, 1)));
+            recording.stop();
+            recording.dump(path);
+
+            int starts = 0;
+            int ends = 0;
+            int iterations = 0;
+            for (RecordedEvent event : RecordingFile.readAllEvents(path)) {
+                String name = event.getEventType().getName();
+                if (name.equals("tictactoe.SearchStart")) {
+                    starts++;
+                } else if (name.equals("tictactoe.SearchEnd")) {
+                    ends++;
+                    assertTrue(event.getLong("nodes") > 0, "End event should carry the node count");
+                } else if (name.equals("tictactoe.IterationComplete")) {
+                    iterations++;
+                    assertEquals("DepthLimitedSolver", event.getString("solver"), "Only deepening solvers iterate");
+                }
+            }
+            assertEquals(3, starts, "Each search should emit a start event");
+            assertEquals(3, ends, "Each search should emit an end event");
+            assertTrue(iterations > 1, "Deepening should emit iteration events");
+        } finally {
+            Files.delete(path);
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(SearchMetrics.OBJECT_NAME);
+        long searches = (Long) server.getAttribute(name, "SearchCount");
+        assertTrue(searches >= 3, "MBean should count searches");
+        double p50 = (Double) server.getAttribute(name, "LatencyP50Millis");
+        double max = (Double) server.getAttribute(name, "LatencyMaxMillis");
+        assertTrue(p50 > 0 && p50 <= max, "Latency percentiles should be ordered");
+        double hitRate = (Double) server.getAttribute(name, "TableHitRate");
+        assertTrue(hitRate > 0 && hitRate <= 1, "Hit rate should be a fraction");
+        System.out.println(" testSearchMonitoring passed - Searches: " + searches + ", p50: " + p50 + "ms");
+    }
+
+    public static void testBatchEvaluation() {
+        HeuristicEvaluator evaluator = new HeuristicEvaluator();
+        Random random = new Random(42);
+        int[][] boards = {{3, 3}, {4, 3}, {5, 4}, {7, 5}};
+        int checked = 0;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int[] board : boards) {
+                int m = board[0];
+                PositionBatch batch = new PositionBatch(m, board[1], 2500);
+                List<GameState> states = new ArrayList<>();
+                while (states.size() < batch.getCapacity()) {
+                    // Random games cut at random lengths, finished ones included
+                    GameState state = GameEngine.initialState(m, board[1]);
+                    int stones = random.nextInt(m * m + 1);
+                    for (int i = 0; i < stones && !state.isTerminal(); i++) {
+                        List<Position> moves = state.getLegalMoves();
+                        state = state.makeMove(moves.get(random.nextInt(moves.size())));
+                    }
+                    states.add(state);
+                    batch.add(state);
+                }
+
+                for (Player player : Player.values()) {
+                    int[] scores = new int[batch.getCount()];
+                    int[] parallelScores = new int[batch.getCount()];
+                    evaluator.evaluateBatch(batch, player, scores);
+                    evaluator.evaluateBatch(batch, player, parallelScores, pool);
+                    for (int i = 0; i < states.size(); i++) {
+                        int expected = evaluator.evaluate(states.get(i), player);
+                        assertEquals(expected, scores[i], "Batch score should match evaluate");
+                        assertEquals(expected, parallelScores[i], "Parallel batch score should match evaluate");
+                        checked++;
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        try {
+            new PositionBatch(3, 3, 1).add(GameEngine.initialState(4, 3));
+            throw new AssertionError("A 4x4 board should not fit a 3x3 batch");
+        } catch (IllegalArgumentException expected) {
+            // Batches hold one board size
+        }
+        System.out.println(" testBatchEvaluation passed - Positions checked: " + checked);
+    }
+
+    public static void testLineScans() {
+        Random random = new Random(9);
+        // Multi-word boards, where a vectorised scan takes over, and k past
+        // what its counters hold
+        int[][] boards = {{9, 5}, {15, 5}, {19, 5}, {20, 16}};
+        int checked = 0;
+        for (int[] board : boards) {
+            int m = board[0];
+            int k = board[1];
+            for (int game = 0; game < 40; game++) {
+                GameState state = GameEngine.initialState(m, k);
+                int stones = random.nextInt(m * m + 1);
+                for (int i = 0; i < stones && !state.isTerminal(); i++) {
+                    List<Position> moves = state.getLegalMoves();
+                    state = state.makeMove(moves.get(random.nextInt(moves.size())));
+                }
+
+                int[] xOpen = new int[k + 1];
+                int[] oOpen = new int[k + 1];
+                state.countOpenWindows(xOpen, oOpen);
+                int[] xExpected = new int[k + 1];
+                int[] oExpected = new int[k + 1];
+                boolean[] lines = new boolean[2];
+                int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+                for (int row = 0; row < m; row++) {
+                    for (int col = 0; col < m; col++) {
+                        for (int[] d : directions) {
+                            int endRow = row + (k - 1) * d[0];
+                            int endCol = col + (k - 1) * d[1];
+                            if (endRow >= m || endCol < 0 || endCol >= m) {
+                                continue;
+                            }
+                            int x = 0;
+                            int o = 0;
+                            for (int i = 0; i < k; i++) {
+                                Player player = state.getPlayerAt(row + i * d[0], col + i * d[1]);
+                                x += player == Player.X ? 1 : 0;
+                                o += player == Player.O ? 1 : 0;
+                            }
+                            if (o == 0 && x > 0) {
+                                xExpected[x]++;
+                            }
+                            if (x == 0 && o > 0) {
+                                oExpected[o]++;
+                            }
+                            lines[0] |= x == k;
+                            lines[1] |= o == k;
+                        }
+                    }
+                }
+                assertEquals(Arrays.toString(xExpected), Arrays.toString(xOpen),
+                        "Open X windows should match a window-by-window count");
+                assertEquals(Arrays.toString(oExpected), Arrays.toString(oOpen),
+                        "Open O windows should match a window-by-window count");
+                Player winner = lines[0] ? Player.X : lines[1] ? Player.O : null;
+                assertTrue(winner == state.getWinner(), "Winner should match a cell-by-cell check");
+                checked++;
+            }
+        }
+        System.out.println(" testLineScans passed - Positions: " + checked
+                + ", vectorized: " + LineScan.isVectorized());
+    }
+
+    public static void testSessionManager() throws Exception {
+        // One solver thread and room for one more search: a third search at
+        // the same time is turned away
+        try (SessionManager manager = new SessionManager(1, 1)) {
+            String game = manager.createGame(3, 3);
+            GameState state = manager.submitMove(game, new Position(1, 1)).get();
+            assertEquals(1, state.getStoneCount(), "Move should be played");
+            Position reply = manager.requestAiMove(game, 5_000).get();
+            assertTrue(state.isEmpty(reply.row, reply.col), "AI should reply on an empty cell");
+            assertEquals(2, manager.getState(game).getStoneCount(), "AI move should be played");
+            assertFailure(manager.submitMove(game, new Position(1, 1)), IllegalArgumentException.class,
+                    "Occupied cell should be refused");
+
+            String busy = manager.createGame(7, 5);
+            String waiting = manager.createGame(7, 5);
+            String other = manager.createGame(7, 5);
+            CompletableFuture<Position> search = manager.requestAiMove(busy, 500);
+            Thread.sleep(100);
+            // Waits behind the running search on the same game until its deadline is gone
+            CompletableFuture<Position> queued = manager.requestAiMove(busy, 100);
+            CompletableFuture<Position> second = manager.requestAiMove(waiting, 2_000);
+            Thread.sleep(100);
+            assertFailure(manager.requestAiMove(other, 1_000), RejectedExecutionException.class,
+                    "Full solver queue should reject");
+            assertNotNull(search.get(), "Running search should finish");
+            assertNotNull(second.get(), "Queued search should run next");
+            assertFailure(queued, TimeoutException.class, "Queued request should miss its deadline");
+            assertTrue(manager.getRejectedRequests() == 1 && manager.getTimedOutRequests() == 1,
+                    "Rejections and timeouts should be counted");
+
+            try {
+                manager.getState("missing");
+                throw new AssertionError("Unknown game should be refused");
+            } catch (IllegalArgumentException expected) {
+                // No such game
+            }
+        }
+
+        // A search cancelled at its deadline gives its solver thread back
+        // at once, even a fixed-depth one that would run for minutes
+        ExecutorService solverThread = Executors.newSingleThreadExecutor();
+        try {
+            GameState open = GameEngine.initialState(9, 5).makeMove(new Position(4, 4));
+            Future<Position> deep = solverThread.submit(() -> new DepthLimitedSolver(8).findBestMove(open));
+            try {
+                deep.get(100, TimeUnit.MILLISECONDS);
+                throw new AssertionError("Depth 8 on 9x9 should not finish in 100ms");
+            } catch (TimeoutException expected) {
+                deep.cancel(true);
+            }
+            long start = System.nanoTime();
+            solverThread.submit(() -> null).get(5, TimeUnit.SECONDS);
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1),
+                    "A cancelled search should free its thread");
+        } finally {
+            solverThread.shutdownNow();
+        }
+
+        // Creates racing for the last slots never open more than the limit
+        try (SessionManager manager = new SessionManager(1, 1)) {
+            manager.setMaxGames(5);
+            ExecutorService creators = Executors.newFixedThreadPool(8);
+            List<Callable<String>> creates = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                creates.add(() -> {
+                    try {
+                        return manager.createGame(3, 3);
+                    } catch (RejectedExecutionException e) {
+                        return null;
+                    }
+                });
+            }
+            List<String> created = new ArrayList<>();
+            for (Future<String> future : creators.invokeAll(creates)) {
+                if (future.get() != null) {
+                    created.add(future.get());
+                }
+            }
+            creators.shutdown();
+            assertTrue(created.size() == 5 && manager.getActiveGames() == 5, "Only the game limit should be created");
+            manager.closeGame(created.get(0));
+            manager.createGame(3, 3);
+            assertEquals(5, manager.getActiveGames(), "A closed game should free its slot");
+        }
+
+        try (SessionManager manager = new SessionManager(2, 4)) {
+            LoadTestClient.Report report = new LoadTestClient(manager, 200).run(50, 3, 3);
+            assertTrue(report.getAiMoves() >= 50, "Every game should get AI moves");
+            assertEquals(0, manager.getActiveGames(), "Finished games should be closed");
+            System.out.println(" testSessionManager passed - " + report + ", virtual threads: "
+                    + manager.isUsingVirtualThreads());
+        }
+    }
+
+    public static void testArena() throws Exception {
+        // Two perfect players score the same: each opening is played with
+        // both colours, and the same position gives the same result
+        Contestant alphaBeta = Contestant.parse("alphabeta:center");
+        Contestant minimax = Contestant.parse("minimax");
+        Arena arena = new Arena(3, 3);
+        arena.setThreads(2);
+        arena.setOpeningPlies(2);
+        StringWriter csv = new StringWriter();
+        arena.setResultWriter(ResultWriter.csv(csv));
+        ArenaReport report = arena.run(List.of(alphaBeta, minimax), 19);
+        arena.setResultWriter(null);
+        assertEquals(20, report.getGames(), "Games per pairing should be rounded up to even");
+        assertTrue(report.getScore(alphaBeta) == 10 && report.getScore(minimax) == 10,
+                "Perfect players should split the points");
+        assertTrue(Math.abs(report.getRating(alphaBeta)) < 1e-6, "Equal scores should rate equally");
+
+        csv.getBuffer().setLength(0);
+        ArenaReport repeat = arena.run(List.of(alphaBeta, minimax), 20);
+        for (int i = 0; i < report.getGames(); i++) {
+            GameResult first = report.getResults().get(i);
+            GameResult second = repeat.getResults().get(i);
+            assertTrue(first.getOpening().equals(second.getOpening()) && first.getWinner() == second.getWinner(),
+                    "Same seed should replay the same games");
+        }
+
+        // A perfect player cannot lose a pair of games on one opening
+        Contestant shallow = Contestant.parse("depth:1");
+        arena.setResultWriter(ResultWriter.jsonLines(csv));
+        ArenaReport mismatch = arena.run(List.of(alphaBeta, shallow), 40);
+        assertTrue(mismatch.getScore(alphaBeta) >= 20, "Perfect player should score at least half");
+        assertTrue(mismatch.getRating(alphaBeta) >= mismatch.getRating(shallow), "Perfect player should rate higher");
+        assertTrue(mismatch.getNodesPerMove(shallow) > 0 && mismatch.getLatencyMillis(shallow, 0.5) > 0,
+                "Nodes and move times should be recorded");
+
+        try {
+            Contestant.parse("depth:3:sideways");
+            throw new AssertionError("Unknown ordering should be refused");
+        } catch (IllegalArgumentException expected) {
+            // Bad spec
+        }
+        System.out.println(String.format(" testArena passed - %.0f games/s", mismatch.getGamesPerSecond()));
+    }
+
+    public static void testSparseBoard() {
+        // Random games against GameState: same stones, wins, window counts
+        // and evaluations at every ply, then undone back to an empty board
+        HeuristicEvaluator evaluator = new HeuristicEvaluator();
+        Random random = new Random(25);
+        int[][] sizes = {{3, 3}, {5, 4}, {7, 5}, {9, 5}, {11, 4}};
+        int plies = 0;
+        for (int[] size : sizes) {
+            for (int game = 0; game < 20; game++) {
+                GameState state = GameEngine.initialState(size[0], size[1]);
+                SparseBoard sparse = new SparseBoard(size[0], size[1]);
+                sparse.setCandidateDistance(1 + game % 2);
+                while (!state.isTerminal()) {
+                    List<Position> moves = state.getLegalMoves();
+                    Position move = moves.get(random.nextInt(moves.size()));
+                    state = state.makeMove(move);
+                    sparse.play(move);
+                    plies++;
+                    assertTrue(sparse.getWinner() == state.getWinner() && sparse.isTerminal() == state.isTerminal(),
+                            "Sparse board should agree on the result");
+                    assertEquals(state.getPlayerAt(move.row, move.col), sparse.getPlayerAt(move.row, move.col),
+                            "Stone should be stored");
+                    int[] xOpen = new int[size[1] + 1];
+                    int[] oOpen = new int[size[1] + 1];
+                    int[] sparseX = new int[size[1] + 1];
+                    int[] sparseO = new int[size[1] + 1];
+                    state.countOpenWindows(xOpen, oOpen);
+                    sparse.countOpenWindows(sparseX, sparseO);
+                    assertTrue(Arrays.equals(xOpen, sparseX) && Arrays.equals(oOpen, sparseO),
+                            "Open windows should match");
+                    assertEquals(evaluator.evaluate(state, Player.X), evaluator.evaluate(sparse, Player.X),
+                            "Evaluation should match");
+                    if (!state.isTerminal()) {
+                        assertEquals(state.getCandidateMoves(sparse.getCandidateDistance()),
+                                sparse.getCandidateMoves(), "Candidate moves should match");
+                    }
+                }
+                assertEquals(state.getStoneCount(), sparse.toGameState().getStoneCount(), "Snapshot should match");
+                assertEquals(state.getZobristKey(), new SearchBoard(sparse).getZobristKey(),
+                        "Search board should load a sparse board");
+                while (sparse.getPly() > 0) {
+                    sparse.undo();
+                }
+                int[] xOpen = new int[size[1] + 1];
+                int[] oOpen = new int[size[1] + 1];
+                sparse.countOpenWindows(xOpen, oOpen);
+                assertTrue(sparse.getZobristKey() == 0 && Arrays.stream(xOpen).sum() == 0
+                        && Arrays.stream(oOpen).sum() == 0, "Undo should restore the empty board");
+                assertEquals(Arrays.asList(new Position(size[0] / 2, size[0] / 2)), sparse.getCandidateMoves(),
+                        "Empty board should offer the center");
+            }
+        }
+
+        // Unbounded: far-apart stones, a diagonal five through negative
+        // coordinates, and candidate moves only around the stones
+        SparseBoard infinite = SparseBoard.unbounded(5);
+        int far = 500_000_000;
+        Position[] moves = {new Position(-2, -2), new Position(far, far), new Position(-1, -1),
+                new Position(-far, 3), new Position(0, 0), new Position(7, 7), new Position(1, 1),
+                new Position(8, 8)};
+        for (Position move : moves) {
+            infinite.play(move);
+        }
+        assertFalse(infinite.isTerminal(), "Four in a row should not win");
+        infinite.setCandidateDistance(1);
+        // 20 cells around the diagonal four, 12 around the pair, 8 around
+        // each lone stone
+        assertEquals(20 + 12 + 8 + 8, infinite.getCandidateMoves().size(),
+                "Candidates should be the empty neighbours of the stones");
+        long key = infinite.getZobristKey();
+        infinite.play(2, 2);
+        assertEquals(Player.X, infinite.getWinner(), "Diagonal five should win on an unbounded board");
+        infinite.undo();
+        assertTrue(infinite.getZobristKey() == key && !infinite.isTerminal(), "Undo should restore the key");
+        try {
+            infinite.play(SparseBoard.MAX_COORDINATE + 1, 0);
+            throw new AssertionError("Cell past the coordinate limit should be refused");
+        } catch (IndexOutOfBoundsException expected) {
+            // Out of range
+        }
+        System.out.println(" testSparseBoard passed - Plies checked: " + plies);
+    }
+
+    private static void assertFailure(CompletableFuture<?> future, Class<? extends Exception> type, String message)
+            throws InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            assertTrue(type.isInstance(e.getCause()), message + " - got " + e.getCause());
+            return;
+        }
+        throw new AssertionError(message + " - completed normally");
+    }
+
     private static void assertTrue(boolean condition, String message) {
         if (!condition) {
             throw new AssertionError( message);